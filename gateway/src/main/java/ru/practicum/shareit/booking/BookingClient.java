@@ -4,64 +4,105 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingCartDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayCache;
 import ru.practicum.shareit.handler.exception.StateException;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private final GatewayCache cache;
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory,
+                         WebClient.Builder webBuilder,
+                         GatewayCache cache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webBuilder
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
+        this.cache = cache;
     }
 
-    public ResponseEntity<Object> createBooking(Long bookerId, BookingDto bookingDto) {
-        return post("", bookerId, bookingDto);
+    public Mono<ResponseEntity<StreamingResponseBody>> createBooking(Long bookerId, BookingDto bookingDto) {
+        return cache.invalidating(post("", bookerId, bookingDto), cache::bookingsChanged);
     }
 
-    public ResponseEntity<Object> approveBooking(Long ownerId, Long bookingId, boolean approved) {
+    public Mono<ResponseEntity<StreamingResponseBody>> createBookings(Long bookerId, BookingCartDto cart) {
+        return cache.invalidating(post("/batch", bookerId, cart), cache::bookingsChanged);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> approveBooking(Long ownerId, Long bookingId, boolean approved) {
+        Map<String, Object> parameters = Map.of(
+                "approved", approved
+        );
+        return cache.invalidating(patch("/" + bookingId + "?approved={approved}", ownerId, parameters, null),
+                cache::bookingsChanged);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> approveBookings(Long ownerId, BookingDecisionDto decision, boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
-        return patch("/" + bookingId + "?approved={approved}", ownerId, parameters, null);
+        return cache.invalidating(patch("?approved={approved}", ownerId, parameters, decision),
+                cache::bookingsChanged);
     }
 
-    public ResponseEntity<Object> getBookingById(Long bookingId, Long userId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getBookingById(Long bookingId, Long userId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllBookings(Long userId, String state, Integer from,
-                                                 Integer size) {
-        validateState(state);
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&&from={from}&&size={size}", userId, parameters);
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllBookings(Long userId, BookingFilter filter) {
+        return get("?state={state}&&from={from}&&size={size}", userId, filter);
     }
 
-    public ResponseEntity<Object> getAllBookingsOfOwner(Long userId, String state, Integer from,
-                                                        Integer size) {
-        validateState(state);
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&&from={from}&&size={size}", userId, parameters);
+    public ResponseEntity<StreamingResponseBody> streamOwnerBookings(long userId, String lastEventId)
+            throws IOException {
+        return stream("/owner/stream", userId, lastEventId);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamBookings(long userId, String lastEventId) throws IOException {
+        return stream("/stream", userId, lastEventId);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllBookingsOfOwner(Long userId, BookingFilter filter) {
+        return get("/owner?state={state}&&from={from}&&size={size}", userId, filter);
+    }
+
+    private Mono<ResponseEntity<StreamingResponseBody>> get(String path, Long userId, BookingFilter filter) {
+        validateState(filter.getState());
+        validateStatus(filter.getStatus());
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "state", filter.getState(),
+                "from", filter.getFrom(),
+                "size", filter.getSize()
+        ));
+        path = withParameter(path, parameters, "cursor", filter.getCursor());
+        path = withParameter(path, parameters, "itemId", filter.getItemId());
+        path = withParameter(path, parameters, "status", filter.getStatus());
+        path = withParameter(path, parameters, "rangeStart", filter.getRangeStart());
+        path = withParameter(path, parameters, "rangeEnd", filter.getRangeEnd());
+        return get(path, userId, parameters);
     }
 
     private void validateState(String state) {
@@ -69,4 +110,10 @@ public class BookingClient extends BaseClient {
             throw new StateException("Unknown state: " + state);
         }
     }
+
+    private void validateStatus(String status) {
+        if (status != null && Status.fromValue(status) == null) {
+            throw new StateException("Unknown status: " + status);
+        }
+    }
 }
\ No newline at end of file
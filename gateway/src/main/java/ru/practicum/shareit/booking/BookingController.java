@@ -2,15 +2,24 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingCartDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 import static ru.practicum.shareit.utilits.Constants.*;
 
@@ -24,22 +33,38 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(@RequestHeader(USER_ID_HEADER) @Positive Long bookerId,
-                                                @Valid @RequestBody BookingDto bookingDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> createBooking(@RequestHeader(USER_ID_HEADER) @Positive Long bookerId,
+                                                      @Valid @RequestBody BookingDto bookingDto) {
         log.info("Запрос на создание бронирования");
         return bookingClient.createBooking(bookerId, bookingDto);
     }
 
+    @PostMapping("batch")
+    public Mono<ResponseEntity<StreamingResponseBody>> createBookings(@RequestHeader(USER_ID_HEADER) @Positive Long bookerId,
+                                                       @Valid @RequestBody BookingCartDto cart) {
+        log.info("Запрос на создание {} бронирований пользователем {}", cart.getBookings().size(), bookerId);
+        return bookingClient.createBookings(bookerId, cart);
+    }
+
     @PatchMapping("{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader(USER_ID_HEADER) @Positive Long ownerId,
-                                                 @RequestParam boolean approved,
-                                                 @PathVariable @Positive Long bookingId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> approveBooking(@RequestHeader(USER_ID_HEADER) @Positive Long ownerId,
+                                                       @RequestParam boolean approved,
+                                                       @PathVariable @Positive Long bookingId) {
         log.info("Запрос на подтверждение/отклонение бронирования {} пользователем {}", bookingId, ownerId);
         return bookingClient.approveBooking(ownerId, bookingId, approved);
     }
 
+    @PatchMapping
+    public Mono<ResponseEntity<StreamingResponseBody>> approveBookings(@RequestHeader(USER_ID_HEADER) @Positive Long ownerId,
+                                                        @RequestParam boolean approved,
+                                                        @Valid @RequestBody BookingDecisionDto decision) {
+        log.info("Запрос на подтверждение/отклонение бронирований {} пользователем {}",
+                decision.getBookingIds(), ownerId);
+        return bookingClient.approveBookings(ownerId, decision, approved);
+    }
+
     @GetMapping("{bookingId}")
-    public ResponseEntity<Object> getBookingById(
+    public Mono<ResponseEntity<StreamingResponseBody>> getBookingById(
             @PathVariable @Positive Long bookingId,
             @RequestHeader(USER_ID_HEADER) @Positive Long userId) {
         log.info("Запрос на получение бронирования {}  у пользователя {}", bookingId, userId);
@@ -47,26 +72,68 @@ public class BookingController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllBookings(
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllBookings(
             @RequestHeader(USER_ID_HEADER) @Positive Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
             @PositiveOrZero Integer from,
             @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-            @Positive Integer size) {
+            @Positive Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive Long itemId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd) {
         log.info("Запрос на получение всех бронирований у пользователя {}", userId);
-        return bookingClient.getAllBookings(userId, state, from, size);
+        return bookingClient.getAllBookings(userId,
+                toFilter(state, from, size, cursor, itemId, status, rangeStart, rangeEnd));
     }
 
     @GetMapping("owner")
-    public ResponseEntity<Object> getAllBookingsOfOwner(
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllBookingsOfOwner(
             @RequestHeader(USER_ID_HEADER) @Positive Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
             @PositiveOrZero Integer from,
             @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-            @Positive Integer size) {
+            @Positive Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive Long itemId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd) {
         log.info("Запрос на получение всех забронированных вещей у пользователя " + userId);
-        return bookingClient.getAllBookingsOfOwner(userId, state, from, size);
+        return bookingClient.getAllBookingsOfOwner(userId,
+                toFilter(state, from, size, cursor, itemId, status, rangeStart, rangeEnd));
+    }
+
+    @GetMapping(value = "owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOwnerBookings(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) throws IOException {
+        log.info("Подписка владельца {} на новые бронирования, последнее событие {}", userId, lastEventId);
+        return bookingClient.streamOwnerBookings(userId, lastEventId);
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookings(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) throws IOException {
+        log.info("Подписка пользователя {} на изменения своих бронирований, последнее событие {}", userId, lastEventId);
+        return bookingClient.streamBookings(userId, lastEventId);
+    }
+
+    private static BookingFilter toFilter(String state, Integer from, Integer size, String cursor, Long itemId,
+                                          String status, LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        return BookingFilter.builder()
+                .state(state)
+                .from(from)
+                .size(size)
+                .cursor(cursor)
+                .itemId(itemId)
+                .status(status)
+                .rangeStart(rangeStart)
+                .rangeEnd(rangeEnd)
+                .build();
     }
 }
\ No newline at end of file
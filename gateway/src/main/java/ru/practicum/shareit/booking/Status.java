@@ -1,5 +1,14 @@
 package ru.practicum.shareit.booking;
 
 public enum Status {
-    WAITING, APPROVED, REJECTED, CANCELED
+    WAITING, APPROVED, REJECTED, CANCELED;
+
+    public static Status fromValue(String value) {
+        for (Status status : values()) {
+            if (status.toString().equals(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+public class BookingFilter {
+    private final String state;
+    private final Long itemId;
+    private final String status;
+    private final LocalDateTime rangeStart;
+    private final LocalDateTime rangeEnd;
+    private final Integer from;
+    private final Integer size;
+    private final String cursor;
+}
@@ -1,94 +1,242 @@
 package ru.practicum.shareit.client;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static ru.practicum.shareit.utilits.Constants.LAST_EVENT_ID_HEADER;
+import static ru.practicum.shareit.utilits.Constants.NEXT_CURSOR_HEADER;
+import static ru.practicum.shareit.utilits.Constants.USER_ID_HEADER;
+
+/**
+ * Запросы к серверу идут через неблокирующий WebClient: поток сервлета освобождается на время ответа сервера.
+ * Тело ответа не разбирается и передаётся клиенту частями по мере чтения, целиком в памяти держатся только
+ * кэшируемые ответы. Потоки событий проксируются через RestTemplate.
+ */
 public class BaseClient {
+    /**
+     * Заголовки ответа сервера, которые передаются клиенту вместе с телом.
+     */
+    private static final List<String> PASSED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.LOCATION, HttpHeaders.CACHE_CONTROL, HttpHeaders.ETAG, NEXT_CURSOR_HEADER);
+
     protected final RestTemplate rest;
+    protected final WebClient web;
+    private final Map<String, Mono<ResponseEntity<StreamingResponseBody>>> inFlight = new ConcurrentHashMap<>();
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, WebClient web) {
         this.rest = rest;
+        this.web = web;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<StreamingResponseBody>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<StreamingResponseBody>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<StreamingResponseBody>> get(String path, Long userId,
+                                                              @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * GET для кэша: ответ собирается в памяти целиком, чтобы его можно было отдать повторно.
+     * Одновременные одинаковые запросы одного пользователя в одной области объединяются: к серверу уходит
+     * один запрос, его ответ получают все ожидающие. Запрос, пришедший после ответа сервера, отправляется заново.
+     * Область отделяет запросы, которые не должны объединяться, например начатые до сброса кэша.
+     */
+    protected Mono<ResponseEntity<StreamingResponseBody>> get(String scope, String path, Long userId,
+                                                              @Nullable Map<String, Object> parameters) {
+        String key = scope + " " + userId + " " + uri(path, parameters != null ? parameters : Map.of());
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k ->
+                request(HttpMethod.GET, path, userId, parameters, null)
+                        .exchangeToMono(response -> response.toEntity(byte[].class))
+                        .map(response -> passThrough(response.getStatusCodeValue(), response.getHeaders(),
+                                buffered(response.getBody())))
+                        .doFinally(signal -> inFlight.remove(k))
+                        .share()));
+    }
+
+    protected <T> Mono<ResponseEntity<StreamingResponseBody>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<StreamingResponseBody>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<StreamingResponseBody>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<StreamingResponseBody>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<StreamingResponseBody>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<StreamingResponseBody>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<StreamingResponseBody>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<StreamingResponseBody>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<StreamingResponseBody>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<StreamingResponseBody>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<StreamingResponseBody>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<StreamingResponseBody>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    /**
+     * Проксирует поток событий сервера (text/event-stream) без буферизации: каждый прочитанный
+     * фрагмент сразу отправляется клиенту. Ответ сервера с ошибкой возвращается как есть.
+     */
+    protected ResponseEntity<StreamingResponseBody> stream(String path, long userId, @Nullable String lastEventId)
+            throws IOException {
+        return stream(path, userId, Map.of(), lastEventId);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+    protected ResponseEntity<StreamingResponseBody> stream(String path, long userId, Map<String, Object> parameters,
+                                                           @Nullable String lastEventId) throws IOException {
+        ClientHttpRequest request = rest.getRequestFactory()
+                .createRequest(rest.getUriTemplateHandler().expand(path, parameters), HttpMethod.GET);
+        request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+        request.getHeaders().set(USER_ID_HEADER, String.valueOf(userId));
+        if (lastEventId != null) {
+            request.getHeaders().set(LAST_EVENT_ID_HEADER, lastEventId);
+        }
+        ClientHttpResponse response = request.execute();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            try (response) {
+                byte[] body = StreamUtils.copyToByteArray(response.getBody());
+                return ResponseEntity.status(response.getStatusCode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(output -> output.write(body));
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .body(output -> {
+                    try (response; InputStream input = response.getBody()) {
+                        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+                        int read;
+                        while ((read = input.read(buffer)) != -1) {
+                            output.write(buffer, 0, read);
+                            output.flush();
+                        }
+                    }
+                });
+    }
+
+    protected static String withParameter(String path, Map<String, Object> parameters, String name,
+                                          @Nullable Object value) {
+        if (value == null) {
+            return path;
+        }
+        parameters.put(name, value);
+        return path + (path.contains("?") ? "&" : "?") + name + "={" + name + "}";
+    }
+
+    /**
+     * Адрес запроса к серверу с подставленными параметрами.
+     */
+    protected String uri(String path, Map<String, Object> parameters) {
+        return rest.getUriTemplateHandler().expand(path, parameters).toString();
+    }
+
+    /**
+     * Тело ответа сервера не разбирается: байты передаются клиенту как есть вместе с разрешёнными заголовками,
+     * и для успешных ответов, и для ошибок. Ответ приходит, как только получены заголовки сервера,
+     * тело читается при записи клиенту.
+     */
+    private <T> Mono<ResponseEntity<StreamingResponseBody>> makeAndSendRequest(HttpMethod method, String path,
+                                                                               Long userId,
+                                                                               @Nullable Map<String, Object> parameters,
+                                                                               @Nullable T body) {
+        return request(method, path, userId, parameters, body)
+                .retrieve()
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(response -> passThrough(response.getStatusCodeValue(), response.getHeaders(),
+                        streamed(response.getBody())));
+    }
+
+    private <T> WebClient.RequestHeadersSpec<?> request(HttpMethod method, String path, Long userId,
+                                                        @Nullable Map<String, Object> parameters, @Nullable T body) {
+        WebClient.RequestBodySpec request = web.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId)));
+        return body != null ? request.bodyValue(body) : request;
+    }
+
+    @Nullable
+    private static StreamingResponseBody buffered(@Nullable byte[] body) {
+        return body != null && body.length > 0 ? output -> output.write(body) : null;
+    }
+
+    /**
+     * Части тела пишутся клиенту вне потоков Reactor Netty, чтобы медленный клиент не занимал цикл событий,
+     * и освобождаются сразу после записи. Сервер читается не быстрее, чем клиент принимает ответ.
+     * Отключение клиента прерывает чтение ответа сервера.
+     */
+    @Nullable
+    private static StreamingResponseBody streamed(@Nullable Flux<DataBuffer> body) {
+        if (body == null) {
+            return null;
+        }
+        return output -> {
+            try {
+                DataBufferUtils.write(body.publishOn(Schedulers.boundedElastic()), output)
+                        .doOnNext(DataBufferUtils::release)
+                        .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                        .blockLast();
+            } catch (RuntimeException e) {
+                Throwable cause = Exceptions.unwrap(e);
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw e;
+            }
+        };
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -101,15 +249,20 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static ResponseEntity<StreamingResponseBody> passThrough(int status, @Nullable HttpHeaders serverHeaders,
+                                                                     @Nullable StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
+        if (serverHeaders != null) {
+            for (String name : PASSED_HEADERS) {
+                List<String> values = serverHeaders.get(name);
+                if (values != null) {
+                    responseBuilder.header(name, values.toArray(String[]::new));
+                }
+            }
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
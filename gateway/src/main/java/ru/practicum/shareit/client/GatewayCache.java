@@ -0,0 +1,103 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Кэш частых GET-запросов шлюза. Ответы, зависящие от пользователя, хранятся отдельно для каждого
+ * X-Sharer-User-Id. Изменяющий запрос сбрасывает затронутые записи до того, как его ответ уйдёт клиенту.
+ * Метрики попаданий, промахов и вытеснений: cache.gets, cache.evictions, cache.size с тегом cache.
+ */
+@Component
+@EnableConfigurationProperties(GatewayCacheProperties.class)
+public class GatewayCache implements MeterBinder {
+    private final ResponseCache items;
+    private final ResponseCache search;
+    private final ResponseCache requests;
+    private final ResponseCache users;
+
+    public GatewayCache(GatewayCacheProperties properties) {
+        items = new ResponseCache(properties.getItems());
+        search = new ResponseCache(properties.getSearch());
+        requests = new ResponseCache(properties.getRequests());
+        users = new ResponseCache(properties.getUsers());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, items.caffeine(), "items");
+        CaffeineCacheMetrics.monitor(registry, search.caffeine(), "search");
+        CaffeineCacheMetrics.monitor(registry, requests.caffeine(), "requests");
+        CaffeineCacheMetrics.monitor(registry, users.caffeine(), "users");
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> item(Long userId, Long itemId, Function<String, Mono<ResponseEntity<StreamingResponseBody>>> loader) {
+        return items.get(itemId + ":" + userId, loader);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> search(String uri, Function<String, Mono<ResponseEntity<StreamingResponseBody>>> loader) {
+        return search.get(uri, loader);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> request(Long userId, Long requestId,
+                                                Function<String, Mono<ResponseEntity<StreamingResponseBody>>> loader) {
+        return requests.get(requestId + ":" + userId, loader);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> user(Long userId, Function<String, Mono<ResponseEntity<StreamingResponseBody>>> loader) {
+        return users.get(String.valueOf(userId), loader);
+    }
+
+    /**
+     * Выполняет изменяющий запрос и сбрасывает кэш по его завершении, в том числе при ошибке:
+     * сервер мог применить изменение, даже если ответ до шлюза не дошёл.
+     */
+    public Mono<ResponseEntity<StreamingResponseBody>> invalidating(Mono<ResponseEntity<StreamingResponseBody>> mutation, Runnable invalidation) {
+        return mutation
+                .doOnNext(response -> invalidation.run())
+                .doOnError(error -> invalidation.run());
+    }
+
+    /**
+     * Новая вещь попадает в поиск и в ответы на запрос.
+     */
+    public void itemCreated() {
+        search.invalidateAll();
+        requests.invalidateAll();
+    }
+
+    /**
+     * Изменение или новый отзыв меняют вещь для всех пользователей, её место в поиске и в ответах на запрос.
+     */
+    public void itemChanged(Long itemId) {
+        String prefix = itemId + ":";
+        items.invalidateIf(key -> key.startsWith(prefix));
+        search.invalidateAll();
+        requests.invalidateAll();
+    }
+
+    /**
+     * Бронирования входят в карточку вещи владельца и в поиск свободных вещей по периоду.
+     */
+    public void bookingsChanged() {
+        items.invalidateAll();
+        search.invalidateAll();
+    }
+
+    /**
+     * Имя пользователя входит в отзывы к вещам; записи удалённого пользователя больше не действительны.
+     */
+    public void userChanged(Long userId) {
+        users.invalidate(String.valueOf(userId));
+        items.invalidateAll();
+        requests.invalidateAll();
+    }
+}
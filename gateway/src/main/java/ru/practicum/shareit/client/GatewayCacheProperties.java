@@ -0,0 +1,34 @@
+package ru.practicum.shareit.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Срок жизни и размер кэша ответов сервера по каждому маршруту.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.cache")
+public class GatewayCacheProperties {
+    /**
+     * GET /items/{id}; ответ владельцу содержит ближайшие бронирования, поэтому срок короткий.
+     */
+    private Route items = new Route(Duration.ofSeconds(10), 10_000);
+    private Route search = new Route(Duration.ofSeconds(30), 1_000);
+    private Route requests = new Route(Duration.ofSeconds(30), 5_000);
+    private Route users = new Route(Duration.ofSeconds(60), 10_000);
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Route {
+        private Duration ttl;
+        private long maxSize;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки общего пула HTTP-соединений шлюза с сервером.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class HttpClientProperties {
+    /**
+     * Всего соединений в пуле. Каждый открытый поток событий (SSE) занимает одно соединение.
+     */
+    private int maxTotal = 200;
+    private int maxPerRoute = 200;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /**
+     * Ожидание данных от сервера; должно быть больше интервала пинга потоков событий.
+     */
+    private Duration readTimeout = Duration.ofSeconds(30);
+    /**
+     * Ожидание свободного соединения в пуле.
+     */
+    private Duration leaseTimeout = Duration.ofSeconds(2);
+    /**
+     * Сколько держать соединение открытым, если сервер не прислал заголовок Keep-Alive.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+    /**
+     * Простаивающие дольше соединения закрываются фоновым потоком.
+     */
+    private Duration maxIdle = Duration.ofSeconds(30);
+    /**
+     * Простаивавшее дольше соединение проверяется перед выдачей из пула.
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
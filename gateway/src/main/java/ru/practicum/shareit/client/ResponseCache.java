@@ -0,0 +1,65 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Function;
+
+/**
+ * Кэш ответов 200 OK одного маршрута с вытеснением W-TinyLFU по размеру и сроком жизни записи.
+ * Ответ, загрузка которого началась до сброса, в кэше не остаётся. Загрузчик получает поколение кэша
+ * как область объединения запросов: промах после сброса не присоединяется к запросу, начатому до него.
+ */
+public class ResponseCache {
+    private final Cache<String, ResponseEntity<StreamingResponseBody>> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    ResponseCache(GatewayCacheProperties.Route route) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(route.getMaxSize())
+                .expireAfterWrite(route.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> get(String key, Function<String, Mono<ResponseEntity<StreamingResponseBody>>> loader) {
+        ResponseEntity<StreamingResponseBody> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        long loadedAt = generation.get();
+        return loader.apply(String.valueOf(loadedAt)).doOnNext(response -> {
+            if (response.getStatusCode() == HttpStatus.OK) {
+                cache.put(key, response);
+                if (generation.get() != loadedAt) {
+                    cache.invalidate(key);
+                }
+            }
+        });
+    }
+
+    public void invalidate(String key) {
+        generation.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    public void invalidateIf(Predicate<String> condition) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(condition);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    Cache<String, ResponseEntity<StreamingResponseBody>> caffeine() {
+        return cache;
+    }
+}
@@ -6,11 +6,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.handler.exception.StateException;
 import ru.practicum.shareit.handler.response.StateErrorResponse;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolationException;
+import java.io.IOException;
 
 @Slf4j
 @RestControllerAdvice("ru.practicum.shareit")
@@ -32,6 +36,23 @@ public class ErrorHandler {
                 .body(HttpStatus.BAD_REQUEST + " " + exception.getMessage());
     }
 
+    @ExceptionHandler({ResourceAccessException.class, WebClientRequestException.class})
+    private ResponseEntity<String> handleException(RuntimeException exception) {
+        log.warn("Получен статус 503 SERVICE_UNAVAILABLE {}", exception.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(HttpStatus.SERVICE_UNAVAILABLE + " Сервер недоступен");
+    }
+
+    /**
+     * Клиент отключился во время передачи тела ответа: заголовки уже отправлены, писать в ответ нельзя.
+     * Параметр response отмечает запрос обработанным без записи тела.
+     */
+    @ExceptionHandler(IOException.class)
+    private void handleException(IOException exception, HttpServletResponse response) {
+        log.debug("Клиент отключился: {}", exception.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     private ResponseEntity<String> handleException() {
         log.debug("Получен статус 500 INTERNAL_SERVER_ERROR - нарушение уникального индекса или первичного ключа");
@@ -3,62 +3,108 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoUpdate;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    private final GatewayCache cache;
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      WebClient.Builder webBuilder,
+                      GatewayCache cache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webBuilder
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
+        this.cache = cache;
     }
 
-    public ResponseEntity<Object> createItem(Long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<StreamingResponseBody>> createItem(Long userId, ItemDto itemDto) {
+        return cache.invalidating(post("", userId, itemDto), cache::itemCreated);
     }
 
-    public ResponseEntity<Object> updateItem(Long itemId, Long userId, ItemDtoUpdate item) {
-        return patch("/" + itemId, userId, item);
+    public Mono<ResponseEntity<StreamingResponseBody>> updateItem(Long itemId, Long userId, ItemDtoUpdate item) {
+        return cache.invalidating(patch("/" + itemId, userId, item), () -> cache.itemChanged(itemId));
     }
 
+    public Mono<ResponseEntity<StreamingResponseBody>> getItemById(Long userId, Long itemId) {
+        return cache.item(userId, itemId, scope -> get(scope, "/" + itemId, userId, null));
+    }
 
-    public ResponseEntity<Object> getItemById(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllItemsOwner(Long userId, int from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "from", from,
+                "size", size
+        ));
+        return get(withParameter("?from={from}&size={size}", parameters, "cursor", cursor), userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllItemsOwner(Long userId, int from, int size) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "to", to
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
     }
 
-    public ResponseEntity<Object> search(String text, int from, int size) {
+    public Mono<ResponseEntity<StreamingResponseBody>> search(ItemSearchFilter filter) {
+        if (filter.getSort() != null && SearchSort.fromValue(filter.getSort()) == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестная сортировка: " + filter.getSort());
+        }
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "text", filter.getText(),
+                "from", filter.getFrom(),
+                "size", filter.getSize()
+        ));
+        String path = withParameter("/search?text={text}&from={from}&size={size}", parameters, "cursor",
+                filter.getCursor());
+        path = withParameter(path, parameters, "start", filter.getStart());
+        path = withParameter(path, parameters, "end", filter.getEnd());
+        String searchPath = withParameter(path, parameters, "sort", filter.getSort());
+        return cache.search(uri(searchPath, parameters),
+                scope -> get(scope, searchPath, null, parameters));
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> suggest(String prefix, int size) {
         Map<String, Object> parameters = Map.of(
-                "text", text,
-                "from", from,
+                "prefix", prefix,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}",null, parameters);
+        return get("/suggest?prefix={prefix}&size={size}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> getSuggestions(Long userId, Long itemId) {
+        return get("/" + itemId + "/suggestions", userId);
     }
 
-    public ResponseEntity<Object> createComment(Long itemId, Long userId, CommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+    public Mono<ResponseEntity<StreamingResponseBody>> createComment(Long itemId, Long userId, CommentDto commentDto) {
+        return cache.invalidating(post("/" + itemId + "/comment", userId, commentDto),
+                () -> cache.itemChanged(itemId));
     }
 }
\ No newline at end of file
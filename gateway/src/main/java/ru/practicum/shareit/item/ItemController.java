@@ -2,17 +2,23 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoUpdate;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 import static ru.practicum.shareit.utilits.Constants.USER_ID_HEADER;
 
@@ -25,49 +31,87 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader(USER_ID_HEADER) @Positive Long userId,
-                                             @Valid @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> createItem(@RequestHeader(USER_ID_HEADER) @Positive Long userId,
+                                                   @Valid @RequestBody ItemDto itemDto) {
         log.info("Запрос на добавление вещи {} у пользователя {} ", itemDto.getName(), userId);
         return itemClient.createItem(userId, itemDto);
     }
 
     @PatchMapping("{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader(USER_ID_HEADER) @Positive Long userId,
-                                             @RequestBody ItemDtoUpdate itemDtoUpdate,
-                                             @PathVariable @Positive Long itemId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> updateItem(@RequestHeader(USER_ID_HEADER) @Positive Long userId,
+                                                   @RequestBody ItemDtoUpdate itemDtoUpdate,
+                                                   @PathVariable @Positive Long itemId) {
         log.info("Запрос на обновление вещи {} у пользователя {} ", itemId, userId);
         return itemClient.updateItem(itemId, userId, itemDtoUpdate);
     }
 
     @GetMapping("{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader(USER_ID_HEADER) @Positive Long userId,
-                                              @PathVariable @Positive Long itemId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getItemById(@RequestHeader(USER_ID_HEADER) @Positive Long userId,
+                                                    @PathVariable @Positive Long itemId) {
         log.info("Запрос на получение вещи {} у пользователя {} ", itemId, userId);
         return itemClient.getItemById(userId, itemId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllItems(
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllItems(
             @RequestHeader(USER_ID_HEADER) @Positive Long userId,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Positive Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
         log.info("Запрос на получение списка вещей у пользователя {}", userId);
-        return itemClient.getAllItemsOwner(userId, from, size);
+        return itemClient.getAllItemsOwner(userId, from, size, cursor);
+    }
+
+    @GetMapping("{itemId}/availability")
+    public Mono<ResponseEntity<StreamingResponseBody>> getAvailability(
+            @PathVariable @Positive Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Запрос на получение занятости вещи {} с {} по {}", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to);
     }
 
     @GetMapping("search")
-    public ResponseEntity<Object> searchItems(
+    public Mono<ResponseEntity<StreamingResponseBody>> searchItems(
             @RequestParam String text,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Positive Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String sort) {
         log.info("Запрос на поиск вещи: {}", text);
-        return itemClient.search(text, from, size);
+        return itemClient.search(ItemSearchFilter.builder()
+                .text(text)
+                .start(start)
+                .end(end)
+                .from(from)
+                .size(size)
+                .cursor(cursor)
+                .sort(sort)
+                .build());
+    }
+
+    @GetMapping("suggest")
+    public Mono<ResponseEntity<StreamingResponseBody>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(value = "size", defaultValue = "10") @Positive @Max(50) Integer size) {
+        log.info("Запрос подсказок по началу названия: {}", prefix);
+        return itemClient.suggest(prefix, size);
+    }
+
+    @GetMapping("{itemId}/suggestions")
+    public Mono<ResponseEntity<StreamingResponseBody>> getSuggestions(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @PathVariable @Positive Long itemId) {
+        log.info("Запрос на получение подобранных запросов для вещи {} у пользователя {}", itemId, userId);
+        return itemClient.getSuggestions(userId, itemId);
     }
 
     @PostMapping("{itemId}/comment")
-    public ResponseEntity<Object> addComment(@PathVariable @Positive Long itemId,
-                                             @RequestHeader(USER_ID_HEADER) @Positive Long userId,
-                                             @Valid @RequestBody CommentDto commentDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> addComment(@PathVariable @Positive Long itemId,
+                                                   @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+                                                   @Valid @RequestBody CommentDto commentDto) {
         log.info("Запрос на добавление комментария для вещи {} пользователем {}", itemId, userId);
         return itemClient.createComment(itemId, userId, commentDto);
     }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item;
+
+public enum SearchSort {
+    ID, RELEVANCE;
+
+    public static SearchSort fromValue(String value) {
+        for (SearchSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+public class ItemSearchFilter {
+    private final String text;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final Integer from;
+    private final Integer size;
+    private final String cursor;
+    private final String sort;
+}
@@ -4,49 +4,73 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayCache;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
+    private final GatewayCache cache;
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             ClientHttpRequestFactory requestFactory,
+                             WebClient.Builder webBuilder,
+                             GatewayCache cache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webBuilder
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
+        this.cache = cache;
     }
 
-    public ResponseEntity<Object> createItemRequest(Long requesterId, ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> createItemRequest(Long requesterId, ItemRequestDto itemRequestDto) {
         return post("", requesterId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getOwnerRequests(Long requesterId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<StreamingResponseBody>> getOwnerRequests(Long requesterId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&&size={size}", requesterId, parameters);
+        ));
+        return get(withParameter("?from={from}&&size={size}", parameters, "cursor", cursor), requesterId, parameters);
     }
 
-    public ResponseEntity<Object> getUserRequests(Long requesterId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<StreamingResponseBody>> getUserRequests(Long requesterId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all?from={from}&&size={size}", requesterId, parameters);
+        ));
+        return get(withParameter("/all?from={from}&&size={size}", parameters, "cursor", cursor), requesterId, parameters);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> getItemRequestById(Long userId, Long requestId) {
+        return cache.request(userId, requestId, scope -> get(scope, "/" + requestId, userId, null));
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamRequests(long userId, String keywords, String lastEventId)
+            throws IOException {
+        Map<String, Object> parameters = new HashMap<>();
+        return stream(withParameter("/stream", parameters, "keywords", keywords), userId, parameters, lastEventId);
     }
 
-    public ResponseEntity<Object> getItemRequestById(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+    public Mono<ResponseEntity<StreamingResponseBody>> getSuggestions(Long userId, Long requestId) {
+        return get("/" + requestId + "/suggestions", userId);
     }
 }
\ No newline at end of file
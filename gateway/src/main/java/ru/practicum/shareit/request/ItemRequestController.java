@@ -2,16 +2,20 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 
 import static ru.practicum.shareit.utilits.Constants.*;
 
@@ -24,41 +28,60 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createRequest(@RequestHeader(USER_ID_HEADER) @Positive Long requesterId,
-                                                @RequestBody @Valid ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> createRequest(@RequestHeader(USER_ID_HEADER) @Positive Long requesterId,
+                                                      @RequestBody @Valid ItemRequestDto itemRequestDto) {
         log.info("Запрос на добавление запроса");
         return itemRequestClient.createItemRequest(requesterId, itemRequestDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getOwnerRequests(
+    public Mono<ResponseEntity<StreamingResponseBody>> getOwnerRequests(
             @RequestHeader(USER_ID_HEADER)
             @Positive Long requesterId,
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
             @PositiveOrZero int from,
             @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-            @Positive int size) {
+            @Positive int size,
+            @RequestParam(required = false) String cursor) {
         log.info("Запрос на получение запросов владельца");
-        return itemRequestClient.getOwnerRequests(requesterId, from, size);
+        return itemRequestClient.getOwnerRequests(requesterId, from, size, cursor);
     }
 
 
     @GetMapping("all")
-    public ResponseEntity<Object> getUserRequests(
+    public Mono<ResponseEntity<StreamingResponseBody>> getUserRequests(
             @RequestHeader(USER_ID_HEADER) @Positive Long requesterId,
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
             @PositiveOrZero int from,
             @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-            @Positive int size) {
+            @Positive int size,
+            @RequestParam(required = false) String cursor) {
         log.info("Запрос на получение запросов пользователя");
-        return itemRequestClient.getUserRequests(requesterId, from, size);
+        return itemRequestClient.getUserRequests(requesterId, from, size, cursor);
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRequests(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @RequestParam(required = false) String keywords,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) throws IOException {
+        log.info("Подписка пользователя {} на новые запросы, ключевые слова: {}", userId, keywords);
+        return itemRequestClient.streamRequests(userId, keywords, lastEventId);
     }
 
     @GetMapping("{requestId}")
-    public ResponseEntity<Object> getItemRequestById(
+    public Mono<ResponseEntity<StreamingResponseBody>> getItemRequestById(
             @RequestHeader(USER_ID_HEADER) @Positive Long userId,
             @PathVariable @Min(1) Long requestId) {
         log.info("Запрос на получение запроса {}  у пользователя {} ", requestId, userId);
         return itemRequestClient.getItemRequestById(userId, requestId);
     }
+
+    @GetMapping("{requestId}/suggestions")
+    public Mono<ResponseEntity<StreamingResponseBody>> getSuggestions(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @PathVariable @Min(1) Long requestId) {
+        log.info("Запрос на получение подобранных вещей для запроса {} у пользователя {}", requestId, userId);
+        return itemRequestClient.getSuggestions(userId, requestId);
+    }
 }
\ No newline at end of file
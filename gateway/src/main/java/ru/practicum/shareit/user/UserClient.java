@@ -4,45 +4,65 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoUpdate;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
+    private final GatewayCache cache;
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      WebClient.Builder webBuilder,
+                      GatewayCache cache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webBuilder
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
+        this.cache = cache;
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> updateUser(UserDtoUpdate userDtoUpdate, Long userId) {
-        return patch("/" + userId, userDtoUpdate);
+    public Mono<ResponseEntity<StreamingResponseBody>> updateUser(UserDtoUpdate userDtoUpdate, Long userId) {
+        return cache.invalidating(patch("/" + userId, userDtoUpdate), () -> cache.userChanged(userId));
     }
 
-    public ResponseEntity<Object> getUserById(Long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<StreamingResponseBody>> getUserById(Long userId) {
+        return cache.user(userId, scope -> get(scope, "/" + userId, null, null));
     }
 
-    public ResponseEntity<Object> deleteUser(Long userId) {
-        return delete("/" + userId);
+    public Mono<ResponseEntity<StreamingResponseBody>> deleteUser(Long userId) {
+        return cache.invalidating(delete("/" + userId), () -> cache.userChanged(userId));
     }
 
-    public ResponseEntity<Object> getAllUsers() {
-        return get("");
+    public Mono<ResponseEntity<StreamingResponseBody>> getAllUsers(Integer size, String cursor) {
+        if (size == null && cursor == null) {
+            return get("");
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        String path = withParameter("", parameters, "cursor", cursor);
+        return get(withParameter(path, parameters, "size", size), null, parameters);
     }
 }
\ No newline at end of file
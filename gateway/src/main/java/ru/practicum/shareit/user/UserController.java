@@ -6,6 +6,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoUpdate;
 
@@ -21,34 +23,35 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@Valid @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<StreamingResponseBody>> createUser(@Valid @RequestBody UserDto userDto) {
         log.info("Запрос на добавление пользователя");
         return userClient.createUser(userDto);
     }
 
     @PatchMapping("{id}")
-    public ResponseEntity<Object> updateUser(@RequestBody UserDtoUpdate userDtoUpdate, @PathVariable("id") Long userId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> updateUser(@RequestBody UserDtoUpdate userDtoUpdate, @PathVariable("id") Long userId) {
         log.info("Запрос на обновление пользователя");
         return userClient.updateUser(userDtoUpdate, userId);
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<Object> deleteUser(@Positive @PathVariable("id") Long userId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> deleteUser(@Positive @PathVariable("id") Long userId) {
         log.info("Запрос на удаление пользователя {}", userId);
         return userClient.deleteUser(userId);
         // return ResponseEntity.noContent().build();
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Object> getUserById(@PathVariable("id") @Positive Long userId) {
+    public Mono<ResponseEntity<StreamingResponseBody>> getUserById(@PathVariable("id") @Positive Long userId) {
         log.info("Запрос на получение пользователя {}", userId);
         return userClient.getUserById(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
+    public Mono<ResponseEntity<StreamingResponseBody>> getUsers(@RequestParam(required = false) @Positive Integer size,
+                                                 @RequestParam(required = false) String cursor) {
         log.info("Запрос на получение списка пользователей");
-        return userClient.getAllUsers();
+        return userClient.getAllUsers(size, cursor);
     }
 
 }
\ No newline at end of file
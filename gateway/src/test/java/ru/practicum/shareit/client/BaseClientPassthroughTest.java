@@ -0,0 +1,96 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.shareit.utilits.Constants.USER_ID_HEADER;
+
+/**
+ * Ответы сервера больше мегабайта проходят через шлюз без изменений: и списки, и кэшируемые ответы, и ошибки.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BaseClientPassthroughTest {
+    private static final int LARGE = 2 * 1024 * 1024;
+    private static final FakeShareItServer SERVER = startServer();
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", SERVER::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        SERVER.delay(0);
+    }
+
+    @Test
+    void ownerItemListLargerThanOneMegabyte() {
+        byte[] items = FakeShareItServer.itemList(LARGE);
+        SERVER.respond(200, items);
+
+        ResponseEntity<byte[]> response = get("/items?from=0&size=10");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(items, response.getBody());
+    }
+
+    @Test
+    void cachedItemLargerThanOneMegabyte() {
+        byte[] item = FakeShareItServer.itemList(LARGE);
+        SERVER.respond(200, item);
+
+        ResponseEntity<byte[]> response = get("/items/1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(item, response.getBody());
+    }
+
+    @Test
+    void errorBodyIsPassedThrough() {
+        byte[] error = "404 NOT_FOUND \"Вещь 7 не найдена\"".getBytes(StandardCharsets.UTF_8);
+        SERVER.respond(404, error);
+
+        ResponseEntity<byte[]> response = get("/items/7/availability?from=2030-01-01T00:00:00&to=2030-01-02T00:00:00");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals(error, response.getBody());
+    }
+
+    private ResponseEntity<byte[]> get(String path) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(USER_ID_HEADER, "1");
+        return rest.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    private static FakeShareItServer startServer() {
+        try {
+            return new FakeShareItServer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Заглушка сервера ShareIt для тестов шлюза: на любой запрос отвечает заданным телом JSON после задержки
+ * и считает наибольшее число одновременно обрабатываемых запросов.
+ */
+class FakeShareItServer {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private volatile byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+    private volatile int status = 200;
+    private volatile long delayMillis;
+
+    FakeShareItServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try (exchange; OutputStream output = exchange.getResponseBody()) {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                byte[] response = body;
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, response.length);
+                output.write(response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void respond(int status, byte[] body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    void delay(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    int resetPeak() {
+        return peak.getAndSet(0);
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Список вещей в формате ответа сервера размером не меньше bytes.
+     */
+    static byte[] itemList(int bytes) {
+        StringBuilder json = new StringBuilder("[");
+        for (long id = 1; json.length() < bytes; id++) {
+            if (id > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(id)
+                    .append(",\"name\":\"Дрель ").append(id)
+                    .append("\",\"description\":\"Аккумуляторная дрель с двумя батареями\",\"available\":true,")
+                    .append("\"requestId\":null,\"lastBooking\":null,\"nextBooking\":null,\"comments\":[]}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.utilits.Constants.USER_ID_HEADER;
+
+/**
+ * Сколько запросов шлюз держит у сервера одновременно при одном и том же числе потоков Tomcat.
+ * Сервер отвечает с задержкой, клиенты отправляют запросы разом. Через WebClient поток сервлета не ждёт ответа
+ * сервера, и одновременных запросов у сервера столько же, сколько клиентов; блокирующий RestTemplate
+ * упирается в число потоков. В журнал выводятся наибольшее число одновременных запросов и время для обоих путей.
+ * Число клиентов задаётся свойством bench.clients.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=" + InFlightRequestsBenchmarkTest.THREADS)
+@Import(InFlightRequestsBenchmarkTest.BlockingController.class)
+class InFlightRequestsBenchmarkTest {
+    static final int THREADS = 8;
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 64);
+    private static final long DELAY_MILLIS = 300;
+    private static final FakeShareItServer SERVER = startServer();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", SERVER::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @Test
+    void webClientKeepsMoreRequestsInFlightThanThreads() {
+        SERVER.respond(200, FakeShareItServer.itemList(1024));
+        SERVER.delay(DELAY_MILLIS);
+        HttpClient client = HttpClient.newHttpClient();
+        // соединения клиентов и пулы шлюза открываются до замера
+        burst(client, "/items?from=0&size=10");
+        SERVER.resetPeak();
+
+        long started = System.nanoTime();
+        burst(client, "/blocking/items");
+        long blockingMillis = (System.nanoTime() - started) / 1_000_000;
+        int blockingPeak = SERVER.resetPeak();
+
+        started = System.nanoTime();
+        burst(client, "/items?from=0&size=10");
+        long reactiveMillis = (System.nanoTime() - started) / 1_000_000;
+        int reactivePeak = SERVER.resetPeak();
+
+        log.info("{} клиентов, {} потоков Tomcat: RestTemplate {} запросов у сервера за {} мс, "
+                + "WebClient {} запросов у сервера за {} мс", CLIENTS, THREADS, blockingPeak, blockingMillis,
+                reactivePeak, reactiveMillis);
+        assertTrue(blockingPeak <= THREADS);
+        assertTrue(reactivePeak >= 4 * THREADS);
+    }
+
+    private void burst(HttpClient client, String path) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header(USER_ID_HEADER, String.valueOf(i + 1))
+                    .build(), HttpResponse.BodyHandlers.discarding()));
+        }
+        responses.forEach(response -> assertEquals(200, response.join().statusCode()));
+    }
+
+    private static FakeShareItServer startServer() {
+        try {
+            return new FakeShareItServer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Прежний путь шлюза: поток сервлета ждёт ответа сервера в RestTemplate.
+     */
+    @RestController
+    static class BlockingController {
+        private final RestTemplate rest = new RestTemplate();
+        @Value("${shareit-server.url}")
+        private String serverUrl;
+
+        @GetMapping("/blocking/items")
+        public ResponseEntity<byte[]> getItems() {
+            return rest.getForEntity(serverUrl + "/items", byte[].class);
+        }
+    }
+}
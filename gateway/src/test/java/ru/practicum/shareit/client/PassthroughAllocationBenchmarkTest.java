@@ -0,0 +1,127 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.utilits.Constants.USER_ID_HEADER;
+
+/**
+ * Память, выделяемая на один ответ со списком вещей: прежний путь шлюза, где ответ сервера разбирается
+ * Jackson в Object и сериализуется заново, против передачи байтов частями без разбора.
+ * Выделение считается по всем потокам процесса, в журнал выводятся байты на запрос для обоих путей.
+ * Размер ответа и число повторов задаются свойствами bench.bytes и bench.rounds.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(PassthroughAllocationBenchmarkTest.ObjectController.class)
+class PassthroughAllocationBenchmarkTest {
+    private static final int BYTES = Integer.getInteger("bench.bytes", 1024 * 1024);
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 50);
+    private static final FakeShareItServer SERVER = startServer();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", SERVER::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.stop();
+    }
+
+    @Test
+    void passthroughAllocatesLessThanObjectRoundTrip() throws IOException {
+        byte[] items = FakeShareItServer.itemList(BYTES);
+        SERVER.respond(200, items);
+
+        long objectBytes = allocatedPerRequest("/object/items");
+        long passthroughBytes = allocatedPerRequest("/items?from=0&size=10");
+        log.info("Ответ {} КБ: разбор в Object {} КБ на запрос, передача байтов {} КБ на запрос ({}%)",
+                items.length / 1024, objectBytes / 1024, passthroughBytes / 1024,
+                passthroughBytes * 100 / objectBytes);
+
+        assertTrue(passthroughBytes * 10 < objectBytes);
+    }
+
+    private long allocatedPerRequest(String path) throws IOException {
+        for (int i = 0; i < ROUNDS; i++) {
+            read(path);
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            read(path);
+        }
+        return (allocatedBytes() - before) / ROUNDS;
+    }
+
+    /**
+     * Тело читается в один переиспользуемый буфер, чтобы клиент почти не добавлял выделений к замеру.
+     */
+    private final byte[] buffer = new byte[64 * 1024];
+
+    private void read(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestProperty(USER_ID_HEADER, "1");
+        assertEquals(200, connection.getResponseCode());
+        try (InputStream input = connection.getInputStream()) {
+            while (input.read(buffer) != -1) {
+                // тело не нужно, важно только выделение памяти шлюзом
+            }
+        }
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(allocated, 0);
+        }
+        return total;
+    }
+
+    private static FakeShareItServer startServer() {
+        try {
+            return new FakeShareItServer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Прежний путь шлюза: RestTemplate разбирает ответ в дерево LinkedHashMap и ArrayList,
+     * Spring MVC сериализует его клиенту заново.
+     */
+    @RestController
+    static class ObjectController {
+        private final RestTemplate rest = new RestTemplate();
+        @Value("${shareit-server.url}")
+        private String serverUrl;
+
+        @GetMapping("/object/items")
+        public ResponseEntity<Object> getItems() {
+            return rest.getForEntity(serverUrl + "/items", Object.class);
+        }
+    }
+}
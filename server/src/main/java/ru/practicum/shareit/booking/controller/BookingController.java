@@ -2,19 +2,30 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingCartDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionListDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.BookingListDto;
+import ru.practicum.shareit.booking.enam.Status;
+import ru.practicum.shareit.booking.service.BookingEventService;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.utilits.PageResponse;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 import static ru.practicum.shareit.utilits.Constants.*;
 
@@ -26,6 +37,7 @@ import static ru.practicum.shareit.utilits.Constants.*;
 public class BookingController {
 
     private final BookingServiceImpl bookingServiceImpl;
+    private final BookingEventService bookingEventService;
 
 
     @PostMapping
@@ -37,6 +49,15 @@ public class BookingController {
                 .body(bookingServiceImpl.createBooking(bookerId, bookingDto));
     }
 
+    @PostMapping("batch")
+    public ResponseEntity<BookingListDto> createBookings(@RequestHeader(USER_ID_HEADER) @Positive Long bookerId,
+                                                         @Valid @RequestBody BookingCartDto cart) {
+        log.info("Запрос на создание {} бронирований пользователем {}", cart.getBookings().size(), bookerId);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(bookingServiceImpl.createBookings(bookerId, cart.getBookings()));
+    }
+
     @PatchMapping("{bookingId}")
     public ResponseEntity<BookingDtoResponse> approveBooking(@RequestHeader(USER_ID_HEADER) @Positive Long ownerId,
                                                              @RequestParam boolean approved,
@@ -46,6 +67,16 @@ public class BookingController {
                 .body(bookingServiceImpl.approveBooking(ownerId, bookingId, approved));
     }
 
+    @PatchMapping
+    public ResponseEntity<BookingDecisionListDto> approveBookings(@RequestHeader(USER_ID_HEADER) @Positive Long ownerId,
+                                                                  @RequestParam boolean approved,
+                                                                  @Valid @RequestBody BookingDecisionDto decision) {
+        log.info("Запрос на подтверждение/отклонение бронирований {} пользователем {}",
+                decision.getBookingIds(), ownerId);
+        return ResponseEntity.ok()
+                .body(bookingServiceImpl.approveBookings(ownerId, decision.getBookingIds(), approved));
+    }
+
     @GetMapping("{bookingId}")
     public ResponseEntity<BookingDtoResponse> getBookingById(
             @PathVariable @Positive Long bookingId,
@@ -62,10 +93,16 @@ public class BookingController {
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
             @PositiveOrZero Integer from,
             @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-            @Positive Integer size) {
+            @Positive Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive Long itemId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd) {
         log.info("Запрос на получение всех бронирований у пользователя {}", userId);
-        return ResponseEntity.ok()
-                .body(bookingServiceImpl.getAllBookings(userId, state, from, size));
+        BookingListDto bookings = bookingServiceImpl.getAllBookings(userId,
+                toFilter(state, from, size, cursor, itemId, status, rangeStart, rangeEnd));
+        return PageResponse.ok(bookings, bookings.getNext());
     }
 
     @GetMapping("owner")
@@ -75,9 +112,47 @@ public class BookingController {
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
             @PositiveOrZero Integer from,
             @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-            @Positive Integer size) {
+            @Positive Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive Long itemId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd) {
         log.info("Запрос на получение всех забронированных вещей у пользователя " + userId);
+        BookingListDto bookings = bookingServiceImpl.getAllBookingsOfOwner(userId,
+                toFilter(state, from, size, cursor, itemId, status, rangeStart, rangeEnd));
+        return PageResponse.ok(bookings, bookings.getNext());
+    }
+
+    @GetMapping(value = "owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOwnerBookings(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        log.info("Подписка владельца {} на новые бронирования, последнее событие {}", userId, lastEventId);
+        return ResponseEntity.ok()
+                .body(bookingEventService.subscribeOwner(userId, lastEventId));
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBookings(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        log.info("Подписка пользователя {} на изменения своих бронирований, последнее событие {}", userId, lastEventId);
         return ResponseEntity.ok()
-                .body(bookingServiceImpl.getAllBookingsOfOwner(userId, state, from, size));
+                .body(bookingEventService.subscribeBooker(userId, lastEventId));
+    }
+
+    private static BookingFilter toFilter(String state, int from, int size, String cursor, Long itemId, String status,
+                                          LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        return BookingFilter.builder()
+                .state(state)
+                .from(from)
+                .size(size)
+                .cursor(cursor)
+                .itemId(itemId)
+                .status(status == null ? null : Status.checkStatus(status))
+                .rangeStart(rangeStart)
+                .rangeEnd(rangeEnd)
+                .build();
     }
 }
\ No newline at end of file
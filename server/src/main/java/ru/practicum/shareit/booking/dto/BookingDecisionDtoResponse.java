@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.enam.DecisionResult;
+
+@Data
+@Builder
+public class BookingDecisionDtoResponse {
+    private Long bookingId;
+    private DecisionResult result;
+}
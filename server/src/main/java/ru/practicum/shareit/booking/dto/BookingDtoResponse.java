@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.enam.Status;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class BookingDtoResponse {
     private Long id;
     private LocalDateTime start;
@@ -18,4 +20,13 @@ public class BookingDtoResponse {
     private UserLimitDto booker;
     private Status status;
 
+    /**
+     * Конструктор для проекции запроса: принимает плоский набор колонок.
+     */
+    public BookingDtoResponse(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                              Long itemId, String itemName, Long bookerId, String bookerName) {
+        this(id, start, end, ItemLimitDto.builder().id(itemId).name(itemName).build(),
+                UserLimitDto.builder().id(bookerId).name(bookerName).build(), status);
+    }
+
 }
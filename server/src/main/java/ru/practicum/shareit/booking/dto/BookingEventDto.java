@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.enam.BookingEventType;
+import ru.practicum.shareit.booking.enam.Status;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class BookingEventDto {
+    private BookingEventType type;
+    private Long bookingId;
+    private Long itemId;
+    private String itemName;
+    private Long bookerId;
+    private Status status;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
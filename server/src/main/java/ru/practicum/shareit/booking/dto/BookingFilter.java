@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.enam.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Параметры выборки списка бронирований: состояние, дополнительные фильтры и страница.
+ * rangeStart/rangeEnd отбирают бронирования, пересекающиеся с указанным периодом.
+ */
+@Getter
+@Builder
+@ToString
+public class BookingFilter {
+    private final String state;
+    private final Long itemId;
+    private final Status status;
+    private final LocalDateTime rangeStart;
+    private final LocalDateTime rangeEnd;
+    private final int from;
+    private final int size;
+    private final String cursor;
+}
@@ -15,4 +15,5 @@ import java.util.List;
 public class BookingListDto {
     @JsonValue
     private List<BookingDtoResponse> bookings;
+    private String next;
 }
\ No newline at end of file
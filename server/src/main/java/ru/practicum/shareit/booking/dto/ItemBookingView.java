@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция одного бронирования вещи для расчёта указателей последнего и следующего бронирования.
+ */
+public interface ItemBookingView {
+    Long getItemId();
+
+    Long getBookingId();
+
+    Long getBookerId();
+
+    LocalDateTime getStartDate();
+}
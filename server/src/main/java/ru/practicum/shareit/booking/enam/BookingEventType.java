@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.enam;
+
+/**
+ * CREATED  новое бронирование вещи владельца
+ * STATUS_CHANGED  бронирование подтверждено или отклонено
+ */
+public enum BookingEventType {
+    CREATED, STATUS_CHANGED
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.enam;
+
+/**
+ * APPROVED  бронирование подтверждено
+ * REJECTED  бронирование отклонено
+ * NOT_FOUND  бронирование не найдено или пользователь не владелец вещи
+ * NOT_WAITING  бронирование уже не ожидает решения
+ * CONFLICT  период пересекается с другим бронированием вещи
+ */
+
+public enum DecisionResult {
+    APPROVED, REJECTED, NOT_FOUND, NOT_WAITING, CONFLICT
+}
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking.enam;
 
+import ru.practicum.shareit.exception.StateException;
+
 /**
  * WAITING  новое бронирование, ожидает одобрения
  * APPROVED  бронирование подтверждено владельцем
@@ -8,5 +10,13 @@ package ru.practicum.shareit.booking.enam;
  */
 
 public enum Status {
-    WAITING, APPROVED, REJECTED, CANCELED
+    WAITING, APPROVED, REJECTED, CANCELED;
+
+    public static Status checkStatus(String value) {
+        try {
+            return Status.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new StateException("Unknown status: " + value);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
 import ru.practicum.shareit.booking.model.Booking;
@@ -10,6 +11,7 @@ import ru.practicum.shareit.item.model.Item;
 @Mapper(componentModel = "spring")
 public interface BookingMapper {
 
+    @Mapping(target = "version", ignore = true)
     Booking toBookingFromBookingDto(BookingDto bookingDto);
 
     BookingDtoResponse toBookingDtoResponseFromBooking(Booking booking);
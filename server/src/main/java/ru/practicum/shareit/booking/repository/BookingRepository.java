@@ -1,7 +1,11 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.enam.Status;
 import ru.practicum.shareit.booking.model.Booking;
 
@@ -10,41 +14,55 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartDesc(Pageable pageable, Long bookerId);
-
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-            Pageable pageable, Long bookerId, LocalDateTime start, LocalDateTime end);
-
-    List<Booking> findAllByBookerIdAndEndIsBeforeOrderByStartDesc(Pageable pageable, Long bookerId, LocalDateTime end);
-
-    List<Booking> findAllByBookerIdAndStartIsAfterOrderByStartDesc(
-            Pageable pageable, Long bookerId, LocalDateTime start);
-
-    List<Booking> findAllByBookerIdAndStatusIsOrderByStartDesc(Pageable pageable, Long bookerId, Status status);
-
-    List<Booking> findAllByItemIdInOrderByStartDesc(Pageable pageable, Collection<Long> itemId);
-
-    List<Booking> findAllByItemIdInAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-            Pageable pageable, Collection<Long> itemId, LocalDateTime start, LocalDateTime end);
-
-    List<Booking> findAllByItemIdInAndEndIsBeforeOrderByStartDesc(
-            Pageable pageable, Collection<Long> itemId, LocalDateTime end);
-
-    List<Booking> findAllByItemIdInAndStartIsAfterOrderByStartDesc(
-            Pageable pageable, Collection<Long> itemId, LocalDateTime start);
-
-    List<Booking> findAllByItemIdInAndStatusIsOrderByStartDesc(
-            Pageable pageable, Collection<Long> itemId, Status status);
-
-    Optional<Booking> findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(Long itemId, LocalDateTime end, Status status);
-
-    Optional<Booking> findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(Long itemId, LocalDateTime start, Status status);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findWithItemAndBookerById(Long bookingId);
+
+    @EntityGraph(attributePaths = "item")
+    List<Booking> findAllWithItemByIdIn(Collection<Long> bookingIds);
+
+    @Query("SELECT b.id FROM Booking AS b WHERE b.id IN :bookingIds AND b.status = :status")
+    List<Long> findAllIdByIdInAndStatus(@Param("bookingIds") Collection<Long> bookingIds,
+                                        @Param("status") Status status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking AS b SET b.status = :status, b.version = b.version + 1 WHERE b.id IN :bookingIds AND b.status = :expected")
+    int updateStatus(@Param("bookingIds") Collection<Long> bookingIds, @Param("expected") Status expected,
+                     @Param("status") Status status);
+
+    @Query(value = "SELECT t.item_id AS itemId, t.booking_id AS bookingId, t.booker_id AS bookerId, " +
+            "t.start_date AS startDate " +
+            "FROM (SELECT b.item_id, b.booking_id, b.booker_id, b.start_date, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC) AS rn " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.start_date < :now) AS t " +
+            "WHERE t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                             @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT t.item_id AS itemId, t.booking_id AS bookingId, t.booker_id AS bookerId, " +
+            "t.start_date AS startDate " +
+            "FROM (SELECT b.item_id, b.booking_id, b.booker_id, b.start_date, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date) AS rn " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.start_date > :now) AS t " +
+            "WHERE t.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findNextByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                             @Param("now") LocalDateTime now);
 
     Boolean existsBookingByItemIdAndBookerIdAndStatusAndEndIsBefore(
             Long itemId, Long bookerId, Status status, LocalDateTime end);
 
-    List<Booking> findAllByItemIdInAndStartBeforeAndStatusOrderByItemIdAscEndDesc(List<Long> collect, LocalDateTime now, Status approved);
+    @Query("SELECT COUNT(b) > 0 FROM Booking AS b WHERE b.item.id = :itemId AND b.status IN :statuses " +
+            "AND b.start < :end AND b.end > :start AND (:excludedId IS NULL OR b.id <> :excludedId)")
+    boolean existsOverlap(@Param("itemId") Long itemId, @Param("statuses") Collection<Status> statuses,
+                          @Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                          @Param("excludedId") Long excludedId);
+
+    List<Booking> findAllByItemIdAndStatusInAndEndAfter(Long itemId, Collection<Status> statuses, LocalDateTime end);
 
-    List<Booking> findAllByItemIdInAndStartAfterAndStatusOrderByItemIdAscStartAsc(List<Long> collect, LocalDateTime now, Status approved);
+    List<Booking> findAllByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAscIdAsc(Long itemId,
+                                                                                          Collection<Status> statuses,
+                                                                                          LocalDateTime end,
+                                                                                          LocalDateTime start);
 }
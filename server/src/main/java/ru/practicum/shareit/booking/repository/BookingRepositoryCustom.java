@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.enam.State;
+import ru.practicum.shareit.utilits.Cursor;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+    List<BookingDtoResponse> findPage(Long userId, boolean isOwner, State state, BookingFilter filter, Cursor after);
+}
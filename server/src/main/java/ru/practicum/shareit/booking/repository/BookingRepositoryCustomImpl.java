@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.enam.State;
+import ru.practicum.shareit.booking.enam.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.StateException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utilits.Cursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Единый построитель запросов списка бронирований.
+ * Бронирующий и владелец отличаются только предикатом (booker_id или items.owner_id),
+ * состояние и фильтры добавляются предикатами, страница выбирается по курсору или смещению.
+ * Страница читается одним SQL-запросом сразу в BookingDtoResponse: выбираются только нужные ответу колонки,
+ * сущности не создаются и не попадают в контекст персистентности.
+ */
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDtoResponse> findPage(Long userId, boolean isOwner, State state, BookingFilter filter,
+                                             Cursor after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDtoResponse> query = cb.createQuery(BookingDtoResponse.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (isOwner) {
+            predicates.add(cb.equal(item.get("owner").get("id"), userId));
+        } else {
+            predicates.add(cb.equal(booker.get("id"), userId));
+        }
+        predicates.addAll(statePredicates(cb, booking, state));
+        predicates.addAll(filterPredicates(cb, booking, item, filter));
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(booking.get("start"), after.getPosition()),
+                    cb.and(cb.equal(booking.get("start"), after.getPosition()),
+                            cb.lessThan(booking.get("id"), after.getId()))));
+        }
+
+        query.select(cb.construct(BookingDtoResponse.class,
+                        booking.get("id"), booking.get("start"), booking.get("end"), booking.get("status"),
+                        item.get("id"), item.get("name"), booker.get("id"), booker.get("name")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(booking.get("start")), cb.desc(booking.get("id")));
+        TypedQuery<BookingDtoResponse> typedQuery = entityManager.createQuery(query);
+        if (after == null) {
+            typedQuery.setFirstResult(filter.getFrom());
+        }
+        return typedQuery
+                .setMaxResults(filter.getSize())
+                .getResultList();
+    }
+
+    private static List<Predicate> statePredicates(CriteriaBuilder cb, Root<Booking> booking, State state) {
+        LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case ALL:
+                return List.of();
+            case CURRENT:
+                return List.of(cb.lessThan(booking.get("start"), now), cb.greaterThan(booking.get("end"), now));
+            case PAST:
+                return List.of(cb.lessThan(booking.get("end"), now));
+            case FUTURE:
+                return List.of(cb.greaterThan(booking.get("start"), now));
+            case WAITING:
+                return List.of(cb.equal(booking.get("status"), Status.WAITING));
+            case REJECTED:
+                return List.of(cb.equal(booking.get("status"), Status.REJECTED));
+            default:
+                throw new StateException("Unknown state: " + state);
+        }
+    }
+
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Booking> booking, Join<Booking, Item> item,
+                                                    BookingFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getItemId() != null) {
+            predicates.add(cb.equal(item.get("id"), filter.getItemId()));
+        }
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(booking.get("status"), filter.getStatus()));
+        }
+        if (filter.getRangeStart() != null) {
+            predicates.add(cb.greaterThan(booking.get("end"), filter.getRangeStart()));
+        }
+        if (filter.getRangeEnd() != null) {
+            predicates.add(cb.lessThan(booking.get("start"), filter.getRangeEnd()));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.enam.BookingEventType;
+import ru.practicum.shareit.booking.enam.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilits.EventHub;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Потоки событий бронирований: владельцу приходят новые бронирования его вещей,
+ * бронирующему — изменения статуса его бронирований.
+ * События публикуются после фиксации транзакции и хранятся в памяти процесса.
+ */
+@Service
+public class BookingEventService {
+    private static final int HISTORY_SIZE = 100;
+    private static final int BUFFER_SIZE = 256;
+
+    private final UserRepository userRepository;
+    private final EventHub<Long, BookingEventDto> owners;
+    private final EventHub<Long, BookingEventDto> bookers;
+
+    public BookingEventService(UserRepository userRepository,
+                               @Value("${shareit.events.timeout:1800000}") long timeoutMillis,
+                               @Value("${shareit.events.retention:600000}") long retentionMillis,
+                               @Value("${shareit.events.send-threads:8}") int sendThreads) {
+        this.userRepository = userRepository;
+        Executor executor = EventHub.daemonExecutor("booking-events", sendThreads);
+        this.owners = new EventHub<>("booking", HISTORY_SIZE, BUFFER_SIZE, timeoutMillis, retentionMillis, executor);
+        this.bookers = new EventHub<>("booking", HISTORY_SIZE, BUFFER_SIZE, timeoutMillis, retentionMillis, executor);
+    }
+
+    public SseEmitter subscribeOwner(Long ownerId, @Nullable String lastEventId) {
+        checkUser(ownerId);
+        return owners.subscribe(ownerId, lastEventId, event -> true);
+    }
+
+    public SseEmitter subscribeBooker(Long bookerId, @Nullable String lastEventId) {
+        checkUser(bookerId);
+        return bookers.subscribe(bookerId, lastEventId, event -> true);
+    }
+
+    public void created(Booking booking) {
+        owners.publishAfterCommit(booking.getItem().getOwner().getId(),
+                toEvent(booking, BookingEventType.CREATED, booking.getStatus()));
+    }
+
+    public void statusChanged(Booking booking, Status status) {
+        bookers.publishAfterCommit(booking.getBooker().getId(),
+                toEvent(booking, BookingEventType.STATUS_CHANGED, status));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.events.heartbeat-delay:15000}")
+    public void heartbeat() {
+        owners.heartbeat();
+        bookers.heartbeat();
+    }
+
+    private void checkUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + userId + " не найден");
+        }
+    }
+
+    private static BookingEventDto toEvent(Booking booking, BookingEventType type, Status status) {
+        return BookingEventDto.builder()
+                .type(type)
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .itemName(booking.getItem().getName())
+                .bookerId(booking.getBooker().getId())
+                .status(status)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .build();
+    }
+}
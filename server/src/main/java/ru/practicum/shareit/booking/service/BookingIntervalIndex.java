@@ -0,0 +1,248 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.enam.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Индекс занятых интервалов [start, end) по каждой вещи. Рассчитан на один экземпляр сервера:
+ * отсутствие пересечения в индексе окончательно, найденное пересечение подтверждается запросом к базе.
+ * Поэтому индекс может содержать лишнее, но не может пропустить занятый период: новое бронирование попадает
+ * в индекс до фиксации, пока транзакция держит блокировку строки вещи, и убирается при откате;
+ * освобождённый период убирается только после фиксации.
+ * Вещь загружается из базы один раз при первом обращении, вещи без будущих бронирований периодически удаляются.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    public static final Set<Status> OCCUPYING_STATUSES = EnumSet.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemIntervals> index = new ConcurrentHashMap<>();
+
+    public boolean hasConflict(Long itemId, LocalDateTime start, LocalDateTime end, Long excludedBookingId) {
+        return intervals(itemId).hasConflict(start, end, excludedBookingId);
+    }
+
+    /**
+     * Занятые интервалы вещи, пересекающиеся с окном [from, to), в порядке начала.
+     * Закончившиеся бронирования в индексе не хранятся, поэтому окно, начавшееся в прошлом, читается из базы.
+     */
+    public List<Span> between(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (from.isBefore(LocalDateTime.now())) {
+            return bookingRepository.findAllByItemIdAndStatusInAndStartBeforeAndEndAfterOrderByStartAscIdAsc(itemId,
+                    OCCUPYING_STATUSES, to, from).stream().map(Span::of).collect(Collectors.toList());
+        }
+        return intervals(itemId).between(from, to);
+    }
+
+    /**
+     * Интервал добавляется перед фиксацией, в том числе в ещё не загруженную вещь: загрузка дополнит его
+     * строками из базы. Если транзакция откатится, интервал будет убран.
+     */
+    public void reserve(Booking booking) {
+        Span span = Span.of(booking);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(span);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                add(span);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    remove(span);
+                }
+            }
+        });
+    }
+
+    /**
+     * Интервал освобождается только после фиксации: пока транзакция может откатиться,
+     * период остаётся занятым и не достаётся параллельному бронированию.
+     */
+    public void release(Booking booking) {
+        Span span = Span.of(booking);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(span);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(span);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-intervals.evict-delay:300000}")
+    public void evictIdle() {
+        index.forEach((itemId, intervals) -> {
+            if (intervals.retireIfFinished()) {
+                index.remove(itemId, intervals);
+            }
+        });
+    }
+
+    /**
+     * Загрузка идёт под монитором вещи: изменения, пришедшие во время чтения базы, ждут его окончания
+     * и применяются к загруженному набору. Записи других вещей загрузку не прерывают.
+     */
+    private ItemIntervals intervals(Long itemId) {
+        while (true) {
+            ItemIntervals intervals = index.computeIfAbsent(itemId, id -> new ItemIntervals());
+            if (intervals.load(() -> bookingRepository.findAllByItemIdAndStatusInAndEndAfter(itemId,
+                    OCCUPYING_STATUSES, LocalDateTime.now()))) {
+                return intervals;
+            }
+        }
+    }
+
+    private void add(Span span) {
+        while (!index.computeIfAbsent(span.getItemId(), id -> new ItemIntervals()).add(span)) {
+            // вещь только что удалена из индекса как пустая, интервал попадёт в новую запись
+        }
+    }
+
+    private void remove(Span span) {
+        ItemIntervals intervals = index.get(span.getItemId());
+        if (intervals != null) {
+            intervals.remove(span);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Span {
+        private final Long bookingId;
+        private final Long itemId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        static Span of(Booking booking) {
+            return new Span(booking.getId(), booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        }
+
+        static Span startingAt(LocalDateTime start) {
+            return new Span(null, null, start, null);
+        }
+    }
+
+    /**
+     * Интервалы вещи по возрастанию начала. Уже сохранённые данные могут содержать пересекающиеся интервалы,
+     * поэтому поиск идёт назад от конца окна, пока начало интервала не отстоит от окна дальше самого длинного из них.
+     * Удалённая из индекса запись больше не принимает интервалы.
+     */
+    private static class ItemIntervals {
+        private static final Comparator<Span> ORDER = Comparator.comparing(Span::getStart)
+                .thenComparing(Span::getBookingId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final TreeSet<Span> spans = new TreeSet<>(ORDER);
+        private Duration longest = Duration.ZERO;
+        private volatile boolean loaded;
+        private boolean retired;
+
+        boolean load(Supplier<List<Booking>> bookings) {
+            if (loaded) {
+                return true;
+            }
+            synchronized (this) {
+                if (retired) {
+                    return false;
+                }
+                if (!loaded) {
+                    bookings.get().forEach(booking -> addSpan(Span.of(booking)));
+                    loaded = true;
+                }
+                return true;
+            }
+        }
+
+        synchronized boolean hasConflict(LocalDateTime start, LocalDateTime end, Long excludedBookingId) {
+            evictFinishedHead();
+            for (Span span : spans.headSet(Span.startingAt(end), false).descendingSet()) {
+                if (!span.getStart().plus(longest).isAfter(start)) {
+                    return false;
+                }
+                if (span.getEnd().isAfter(start) && !span.getBookingId().equals(excludedBookingId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized List<Span> between(LocalDateTime from, LocalDateTime to) {
+            evictFinishedHead();
+            LinkedList<Span> result = new LinkedList<>();
+            for (Span span : spans.headSet(Span.startingAt(to), false).descendingSet()) {
+                if (!span.getStart().plus(longest).isAfter(from)) {
+                    break;
+                }
+                if (span.getEnd().isAfter(from)) {
+                    result.addFirst(span);
+                }
+            }
+            return result;
+        }
+
+        synchronized boolean add(Span span) {
+            if (retired) {
+                return false;
+            }
+            addSpan(span);
+            return true;
+        }
+
+        private void addSpan(Span span) {
+            spans.add(span);
+            Duration length = Duration.between(span.getStart(), span.getEnd());
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+
+        synchronized void remove(Span span) {
+            spans.remove(span);
+        }
+
+        private void evictFinishedHead() {
+            LocalDateTime now = LocalDateTime.now();
+            while (!spans.isEmpty() && !spans.first().getEnd().isAfter(now)) {
+                spans.pollFirst();
+            }
+        }
+
+        /**
+         * Удаляет все завершившиеся интервалы и пересчитывает самый длинный. Опустевшая загруженная вещь
+         * перестаёт принимать интервалы и может быть удалена из индекса.
+         */
+        synchronized boolean retireIfFinished() {
+            LocalDateTime now = LocalDateTime.now();
+            spans.removeIf(span -> !span.getEnd().isAfter(now));
+            longest = spans.stream()
+                    .map(span -> Duration.between(span.getStart(), span.getEnd()))
+                    .max(Comparator.naturalOrder())
+                    .orElse(Duration.ZERO);
+            retired = loaded && spans.isEmpty();
+            return retired;
+        }
+    }
+}
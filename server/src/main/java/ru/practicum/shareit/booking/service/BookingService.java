@@ -1,18 +1,26 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionListDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.BookingListDto;
 
+import java.util.List;
+
 public interface BookingService {
     BookingDtoResponse createBooking(Long bookerId, BookingDto bookingDto);
 
+    BookingListDto createBookings(Long bookerId, List<BookingDto> bookingDtos);
+
     BookingDtoResponse approveBooking(Long ownerId, Long bookingId, boolean approved);
 
+    BookingDecisionListDto approveBookings(Long ownerId, List<Long> bookingIds, boolean approved);
+
     BookingDtoResponse getBookingById(Long bookingId, Long userId);
 
-    BookingListDto getAllBookings(Long userId, String state, int from, int size);
+    BookingListDto getAllBookings(Long userId, BookingFilter filter);
 
-    BookingListDto getAllBookingsOfOwner(Long userId, String state, int from, int size);
+    BookingListDto getAllBookingsOfOwner(Long userId, BookingFilter filter);
 
 }
@@ -1,32 +1,36 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingDecisionDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingDecisionListDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.BookingListDto;
+import ru.practicum.shareit.booking.enam.DecisionResult;
 import ru.practicum.shareit.booking.enam.State;
 import ru.practicum.shareit.booking.enam.Status;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
-import ru.practicum.shareit.exception.StateException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointerService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
-import ru.practicum.shareit.utilits.ShareItPageRequest;
+import ru.practicum.shareit.utilits.Cursor;
+import ru.practicum.shareit.utilits.OptimisticRetry;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static ru.practicum.shareit.utilits.Sort.SORT_BY_START_DESC;
-
 @RequiredArgsConstructor
 @Service
 @Transactional
@@ -35,6 +39,10 @@ public class BookingServiceImpl implements BookingService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingPointerService itemBookingPointerService;
+    private final BookingEventService bookingEventService;
+    private final OptimisticRetry optimisticRetry;
 
     @Override
     public BookingDtoResponse createBooking(Long bookerId, BookingDto bookingDto) {
@@ -44,7 +52,7 @@ public class BookingServiceImpl implements BookingService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "Дата окончания бронирования не может быть раньше даты начала или равна ей");
         }
-        Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId()).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Вещь " + bookingDto.getItemId() + " не найдена"));
         if (!item.getOwner().getId().equals(bookerId)) {
@@ -52,10 +60,14 @@ public class BookingServiceImpl implements BookingService {
                 User user = userRepository.findById(bookerId).orElseThrow(
                         () -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                                 "Пользователь " + bookerId + " не найден"));
+                checkConflict(item.getId(), bookingDto.getStart(), bookingDto.getEnd(), null);
                 Booking booking = bookingMapper.toBookingFromBookingDto(bookingDto);
                 booking.setItem(item);
                 booking.setBooker(user);
-                return bookingMapper.toBookingDtoResponseFromBooking(bookingRepository.save(booking));
+                booking = bookingRepository.save(booking);
+                bookingIntervalIndex.reserve(booking);
+                bookingEventService.created(booking);
+                return bookingMapper.toBookingDtoResponseFromBooking(booking);
             } else {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                         "Вещь " + item.getId() + " недоступна для бронирования");
@@ -66,9 +78,90 @@ public class BookingServiceImpl implements BookingService {
     }
 
 
+    /**
+     * Корзина бронирований: все вещи блокируются одним запросом в порядке id,
+     * пересечения проверяются и с существующими бронированиями, и внутри корзины,
+     * вставка выполняется пакетом. Ошибка по любой позиции отменяет всю корзину.
+     */
     @Override
+    public BookingListDto createBookings(Long bookerId, List<BookingDto> bookingDtos) {
+        for (BookingDto bookingDto : bookingDtos) {
+            if (!bookingDto.getEnd().isAfter(bookingDto.getStart())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Дата окончания бронирования не может быть раньше даты начала или равна ей");
+            }
+        }
+        User user = userRepository.findById(bookerId).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + bookerId + " не найден"));
+        Map<Long, Item> items = itemRepository.findAllByIdForUpdate(bookingDtos.stream()
+                        .map(BookingDto::getItemId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<BookingDto>> cartByItem = new HashMap<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Вещь " + bookingDto.getItemId() + " не найдена");
+            }
+            if (item.getOwner().getId().equals(bookerId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Владелец не может бронировать свои вещи");
+            }
+            if (!item.getAvailable()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Вещь " + item.getId() + " недоступна для бронирования");
+            }
+            checkConflict(item.getId(), bookingDto.getStart(), bookingDto.getEnd(), null);
+            cartByItem.computeIfAbsent(item.getId(), itemId -> new ArrayList<>()).add(bookingDto);
+        }
+        cartByItem.forEach(this::checkCartConflict);
+
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            bookingDto.setStatus(Status.WAITING);
+            Booking booking = bookingMapper.toBookingFromBookingDto(bookingDto);
+            booking.setItem(items.get(bookingDto.getItemId()));
+            booking.setBooker(user);
+            bookings.add(booking);
+        }
+        bookings = bookingRepository.saveAll(bookings);
+        bookings.forEach(bookingIntervalIndex::reserve);
+        bookings.forEach(bookingEventService::created);
+        return BookingListDto.builder()
+                .bookings(bookings.stream()
+                        .map(bookingMapper::toBookingDtoResponseFromBooking)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private void checkCartConflict(Long itemId, List<BookingDto> bookingDtos) {
+        bookingDtos.sort(Comparator.comparing(BookingDto::getStart));
+        for (int i = 1; i < bookingDtos.size(); i++) {
+            BookingDto previous = bookingDtos.get(i - 1);
+            if (previous.getEnd().isAfter(bookingDtos.get(i).getStart())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Бронирования вещи " + itemId + " в корзине пересекаются: с " + previous.getStart()
+                                + " по " + previous.getEnd());
+            }
+        }
+    }
+
+
+    /**
+     * Решение принимается без блокировки строки вещи: одновременные решения по одному бронированию разводит версия.
+     * При конфликте версий решение повторяется в новой транзакции: повторное чтение видит,
+     * что бронирование уже не в статусе WAITING, и проигравший запрос получает однозначный ответ.
+     * Указатели бронирований вещи пересчитываются после фиксации.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BookingDtoResponse approveBooking(Long ownerId, Long bookingId, boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
+        return optimisticRetry.execute(() -> doApproveBooking(ownerId, bookingId, approved));
+    }
+
+    private BookingDtoResponse doApproveBooking(Long ownerId, Long bookingId, boolean approved) {
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId).orElseThrow(() ->
                 new ResponseStatusException(HttpStatus.NOT_FOUND, "Бронирование " + bookingId + " не найдено"));
         if (!booking.getStatus().equals(Status.WAITING)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
@@ -76,11 +169,18 @@ public class BookingServiceImpl implements BookingService {
         }
         if (booking.getItem().getOwner().getId().equals(ownerId)) {
             if (approved) {
+                checkConflict(booking.getItem().getId(), booking.getStart(), booking.getEnd(), booking.getId());
                 booking.setStatus(Status.APPROVED);
             } else {
                 booking.setStatus(Status.REJECTED);
+                bookingIntervalIndex.release(booking);
+            }
+            booking = bookingRepository.saveAndFlush(booking);
+            bookingEventService.statusChanged(booking, booking.getStatus());
+            if (approved) {
+                itemBookingPointerService.refreshAfterCommit(List.of(booking.getItem().getId()));
             }
-            return bookingMapper.toBookingDtoResponseFromBooking(bookingRepository.save(booking));
+            return bookingMapper.toBookingDtoResponseFromBooking(booking);
         } else {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + ownerId +
                     " не является владельцем вещи " + booking.getItem().getOwner().getId());
@@ -88,10 +188,85 @@ public class BookingServiceImpl implements BookingService {
     }
 
 
+    /**
+     * Решение по нескольким бронированиям сразу: владение проверяется одним запросом,
+     * статус меняется одним UPDATE с условием status = WAITING, результат возвращается по каждому id.
+     */
+    @Override
+    public BookingDecisionListDto approveBookings(Long ownerId, List<Long> bookingIds, boolean approved) {
+        Map<Long, DecisionResult> results = new LinkedHashMap<>();
+        bookingIds.forEach(bookingId -> results.put(bookingId, DecisionResult.NOT_FOUND));
+        List<Booking> owned = bookingRepository.findAllWithItemByIdIn(results.keySet()).stream()
+                .filter(booking -> booking.getItem().getOwner().getId().equals(ownerId))
+                .collect(Collectors.toList());
+        if (!owned.isEmpty()) {
+            itemRepository.findAllByIdForUpdate(owned.stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toSet()));
+            Set<Long> waiting = new HashSet<>(bookingRepository.findAllIdByIdInAndStatus(owned.stream()
+                    .map(Booking::getId)
+                    .collect(Collectors.toList()), Status.WAITING));
+            List<Booking> accepted = new ArrayList<>();
+            for (Booking booking : owned) {
+                if (!waiting.contains(booking.getId())) {
+                    results.put(booking.getId(), DecisionResult.NOT_WAITING);
+                } else if (approved && hasConflict(booking.getItem().getId(),
+                        booking.getStart(), booking.getEnd(), booking.getId())) {
+                    results.put(booking.getId(), DecisionResult.CONFLICT);
+                } else {
+                    accepted.add(booking);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                bookingRepository.updateStatus(accepted.stream().map(Booking::getId).collect(Collectors.toList()),
+                        Status.WAITING, approved ? Status.APPROVED : Status.REJECTED);
+                for (Booking booking : accepted) {
+                    results.put(booking.getId(), approved ? DecisionResult.APPROVED : DecisionResult.REJECTED);
+                    if (!approved) {
+                        bookingIntervalIndex.release(booking);
+                    }
+                    bookingEventService.statusChanged(booking, approved ? Status.APPROVED : Status.REJECTED);
+                }
+                if (approved) {
+                    itemBookingPointerService.refresh(accepted.stream()
+                            .map(booking -> booking.getItem().getId())
+                            .collect(Collectors.toSet()));
+                }
+            }
+        }
+        return BookingDecisionListDto.builder()
+                .decisions(results.entrySet().stream()
+                        .map(result -> BookingDecisionDtoResponse.builder()
+                                .bookingId(result.getKey())
+                                .result(result.getValue())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+
+    private void checkConflict(Long itemId, LocalDateTime start, LocalDateTime end, Long bookingId) {
+        if (hasConflict(itemId, start, end, bookingId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Вещь " + itemId + " уже забронирована на период с " + start + " по " + end);
+        }
+    }
+
+
+    /**
+     * Свободный по индексу период свободен: индекс не пропускает занятых периодов. Найденное индексом пересечение
+     * подтверждается запросом к базе, потому что индекс может держать период отменённой или откатившейся записи.
+     */
+    private boolean hasConflict(Long itemId, LocalDateTime start, LocalDateTime end, Long bookingId) {
+        return bookingIntervalIndex.hasConflict(itemId, start, end, bookingId)
+                && bookingRepository.existsOverlap(itemId, BookingIntervalIndex.OCCUPYING_STATUSES, start, end, bookingId);
+    }
+
+
     @Transactional(readOnly = true)
     @Override
     public BookingDtoResponse getBookingById(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Бронирование " + bookingId + " не найдено "
                         + "¯\\_(ツ)_/¯"));
         if (!(booking.getBooker().getId().equals(userId) || booking.getItem().getOwner().getId().equals(userId))) {
@@ -103,142 +278,41 @@ public class BookingServiceImpl implements BookingService {
 
 
     @Transactional(readOnly = true)
-    public BookingListDto getAllBookings(Long userId, String state, int from, int size) {
-        Pageable pageable = new ShareItPageRequest(from, size, SORT_BY_START_DESC);
+    @Override
+    public BookingListDto getAllBookings(Long userId, BookingFilter filter) {
         if (!userRepository.existsById(userId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
                     "Пользователь " + userId + " не найден");
-        } else {
-            return getListBookings(pageable, state, userId, false);
         }
+        return getListBookings(userId, false, filter);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public BookingListDto getAllBookingsOfOwner(Long userId, String state, int from, int size) {
-        Pageable pageable = new ShareItPageRequest(from, size, SORT_BY_START_DESC);
+    public BookingListDto getAllBookingsOfOwner(Long userId, BookingFilter filter) {
         if (!userRepository.existsById(userId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + userId + " не найден");
         }
         if (!itemRepository.existsItemByOwnerId(userId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
                     "У пользователя " + userId + " нет вещей для бронирования");
-        } else {
-            return getListBookings(pageable, state, userId, true);
         }
+        return getListBookings(userId, true, filter);
     }
 
-
-    private BookingListDto getListBookings(Pageable pageable, String state, Long userId, Boolean isOwner) {
-        List<Long> itemsId;
-        List<BookingDtoResponse> bookingDtoResponses;
-
-        switch (State.checkState(state.toUpperCase())) {
-            case ALL:
-                if (isOwner) {
-                    itemsId = itemRepository.findAllItemIdByOwnerId(userId);
-                    bookingDtoResponses = bookingRepository
-                            .findAllByItemIdInOrderByStartDesc(pageable, itemsId)
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                } else {
-                    bookingDtoResponses = bookingRepository
-                            .findAllByBookerIdOrderByStartDesc(pageable, userId)
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                }
-                break;
-            case CURRENT:
-                if (isOwner) {
-                    itemsId = itemRepository.findAllItemIdByOwnerId(userId);
-                    bookingDtoResponses = bookingRepository
-                            .findAllByItemIdInAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-                                    pageable, itemsId, LocalDateTime.now(), LocalDateTime.now())
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                } else {
-                    bookingDtoResponses = bookingRepository
-                            .findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(
-                                    pageable, userId, LocalDateTime.now(), LocalDateTime.now())
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                }
-                break;
-            case PAST:
-                if (isOwner) {
-                    itemsId = itemRepository.findAllItemIdByOwnerId(userId);
-                    bookingDtoResponses = bookingRepository
-                            .findAllByItemIdInAndEndIsBeforeOrderByStartDesc(pageable, itemsId, LocalDateTime.now())
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                } else {
-                    bookingDtoResponses = bookingRepository
-                            .findAllByBookerIdAndEndIsBeforeOrderByStartDesc(pageable, userId, LocalDateTime.now())
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                }
-                break;
-            case FUTURE:
-                if (isOwner) {
-                    itemsId = itemRepository.findAllItemIdByOwnerId(userId);
-                    bookingDtoResponses = bookingRepository
-                            .findAllByItemIdInAndStartIsAfterOrderByStartDesc(pageable, itemsId, LocalDateTime.now())
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                } else {
-                    bookingDtoResponses = bookingRepository
-                            .findAllByBookerIdAndStartIsAfterOrderByStartDesc(pageable, userId, LocalDateTime.now())
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                }
-                break;
-            case WAITING:
-                if (isOwner) {
-                    itemsId = itemRepository.findAllItemIdByOwnerId(userId);
-                    bookingDtoResponses = bookingRepository
-                            .findAllByItemIdInAndStatusIsOrderByStartDesc(pageable, itemsId, Status.WAITING)
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                } else {
-                    bookingDtoResponses = bookingRepository
-                            .findAllByBookerIdAndStatusIsOrderByStartDesc(pageable, userId, Status.WAITING)
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                }
-                break;
-            case REJECTED:
-                if (isOwner) {
-                    itemsId = itemRepository.findAllItemIdByOwnerId(userId);
-                    bookingDtoResponses = bookingRepository
-                            .findAllByItemIdInAndStatusIsOrderByStartDesc(pageable, itemsId, Status.REJECTED)
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                } else {
-                    bookingDtoResponses = bookingRepository
-                            .findAllByBookerIdAndStatusIsOrderByStartDesc(pageable, userId, Status.REJECTED)
-                            .stream()
-                            .map(bookingMapper::toBookingDtoResponseFromBooking)
-                            .collect(Collectors.toList());
-                }
-                break;
-            default:
-                throw new StateException("Unknown state: " + state);
+    private BookingListDto getListBookings(Long userId, boolean isOwner, BookingFilter filter) {
+        if (filter.getRangeStart() != null && filter.getRangeEnd() != null
+                && !filter.getRangeStart().isBefore(filter.getRangeEnd())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Начало периода должно быть раньше его окончания");
         }
-
+        Cursor after = filter.getCursor() == null ? null : Cursor.decodePositioned(filter.getCursor());
+        List<BookingDtoResponse> bookingDtoResponses = bookingRepository
+                .findPage(userId, isOwner, State.checkState(filter.getState()), filter, after);
         return BookingListDto.builder()
                 .bookings(bookingDtoResponses)
+                .next(Cursor.next(bookingDtoResponses, filter.getSize(),
+                        booking -> Cursor.of(booking.getStart(), booking.getId())))
                 .build();
     }
 }
-
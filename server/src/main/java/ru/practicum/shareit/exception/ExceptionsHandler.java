@@ -2,6 +2,7 @@ package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -9,7 +10,9 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolationException;
+import java.io.IOException;
 
 @Slf4j
 @ControllerAdvice("ru.practicum.shareit")
@@ -39,6 +42,14 @@ public class ExceptionsHandler {
                 .body(HttpStatus.INTERNAL_SERVER_ERROR + " Нарушение уникального индекса или первичного ключа");
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    private ResponseEntity<String> handleException(OptimisticLockingFailureException exception) {
+        log.debug("Получен статус 409 CONFLICT {}", exception.getMessage(), exception);
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(HttpStatus.CONFLICT + " Данные изменены параллельным запросом, повторите попытку");
+    }
+
     @ExceptionHandler(StateException.class)
     private ResponseEntity<StateErrorResponse> handleException(StateException exception) {
         log.debug("Получен статус 400 BAD_REQUEST {}", exception.getMessage(), exception);
@@ -55,6 +66,15 @@ public class ExceptionsHandler {
                 .body(HttpStatus.BAD_REQUEST + " " + exception.getMessage());
     }
 
+    /**
+     * Клиент потока событий отключился: ответ уже закрыт и может быть отдан другому запросу, писать в него нельзя.
+     * Параметр response отмечает запрос обработанным без записи тела.
+     */
+    @ExceptionHandler(IOException.class)
+    private void handleException(IOException exception, HttpServletResponse response) {
+        log.debug("Клиент отключился: {}", exception.getMessage());
+    }
+
     @ExceptionHandler(Throwable.class)
     private ResponseEntity<String> handleException(Throwable exception) {
         log.debug("Получен статус 500 INTERNAL_SERVER_ERROR {}", exception.getMessage(), exception);
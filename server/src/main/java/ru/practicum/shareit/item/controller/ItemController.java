@@ -2,17 +2,24 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.enam.SearchSort;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.request.dto.SuggestedRequestListDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.utilits.PageResponse;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 import static ru.practicum.shareit.utilits.Constants.USER_ID_HEADER;
 
@@ -23,6 +30,7 @@ import static ru.practicum.shareit.utilits.Constants.USER_ID_HEADER;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemServiceImpl itemServiceImpl;
+    private final ItemRequestService itemRequestService;
 
     @PostMapping
     public ResponseEntity<ItemDtoResponse> createItem(@RequestHeader(USER_ID_HEADER) @Positive Long userId,
@@ -54,20 +62,61 @@ public class ItemController {
     public ResponseEntity<ItemListDto> getAllItems(
             @RequestHeader(USER_ID_HEADER) @Positive Long userId,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Positive Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
         log.info("Запрос на получение списка вещей у пользователя {}", userId);
+        ItemListDto items = itemServiceImpl.getAllItemsOwner(userId, from, size, cursor);
+        return PageResponse.ok(items, items.getNext());
+    }
+
+    @GetMapping("{itemId}/availability")
+    public ResponseEntity<ItemAvailabilityDto> getAvailability(
+            @PathVariable @Positive Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Запрос на получение занятости вещи {} с {} по {}", itemId, from, to);
         return ResponseEntity.ok()
-                .body(itemServiceImpl.getAllItemsOwner(userId, from, size));
+                .body(itemServiceImpl.getAvailability(itemId, from, to));
     }
 
     @GetMapping("search")
     public ResponseEntity<ItemListDto> searchItems(
             @RequestParam String text,
             @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(value = "size", defaultValue = "10") @Positive Integer size) {
+            @RequestParam(value = "size", defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "id") String sort) {
         log.info("Запрос на поиск вещи: {}", text);
+        ItemListDto items = itemServiceImpl.search(ItemSearchFilter.builder()
+                .text(text)
+                .start(start)
+                .end(end)
+                .from(from)
+                .size(size)
+                .cursor(cursor)
+                .sort(SearchSort.fromValue(sort))
+                .build());
+        return PageResponse.ok(items, items.getNext());
+    }
+
+    @GetMapping("suggest")
+    public ResponseEntity<ItemSuggestionListDto> suggest(
+            @RequestParam String prefix,
+            @RequestParam(value = "size", defaultValue = "10") @Positive @Max(50) Integer size) {
+        log.info("Запрос подсказок по началу названия: {}", prefix);
+        return ResponseEntity.ok()
+                .body(itemServiceImpl.suggest(prefix, size));
+    }
+
+    @GetMapping("{itemId}/suggestions")
+    public ResponseEntity<SuggestedRequestListDto> getSuggestions(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @PathVariable @Positive Long itemId) {
+        log.info("Запрос на получение подобранных запросов для вещи {} у пользователя {}", itemId, userId);
         return ResponseEntity.ok()
-                .body(itemServiceImpl.search(text, from, size));
+                .body(itemRequestService.getItemSuggestions(userId, itemId));
     }
 
     @PostMapping("{itemId}/comment")
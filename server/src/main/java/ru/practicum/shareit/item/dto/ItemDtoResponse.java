@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -12,6 +13,7 @@ import java.util.Set;
 @Getter
 @Setter
 @ToString
+@AllArgsConstructor
 public class ItemDtoResponse {
     private Long id;
     private String name;
@@ -21,4 +23,11 @@ public class ItemDtoResponse {
     private BookingLimitDto lastBooking;
     private BookingLimitDto nextBooking;
     private Set<CommentDtoResponse> comments;
+
+    /**
+     * Конструктор для проекции запроса: бронирования и отзывы заполняются отдельно.
+     */
+    public ItemDtoResponse(Long id, String name, String description, Boolean available, Long requestId) {
+        this(id, name, description, available, requestId, null, null, null);
+    }
 }
\ No newline at end of file
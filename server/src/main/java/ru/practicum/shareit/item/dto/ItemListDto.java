@@ -11,4 +11,5 @@ import java.util.List;
 public class ItemListDto {
     @JsonValue
     private List<ItemDtoResponse> items;
+    private String next;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.item.enam.SearchSort;
+
+import java.time.LocalDateTime;
+
+/**
+ * Параметры поиска вещей: текст, страница и необязательное окно [start, end),
+ * в котором у вещи не должно быть подтверждённых бронирований, и порядок выдачи.
+ */
+@Getter
+@Builder
+@ToString
+public class ItemSearchFilter {
+    private final String text;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final int from;
+    private final int size;
+    private final String cursor;
+    private final SearchSort sort;
+}
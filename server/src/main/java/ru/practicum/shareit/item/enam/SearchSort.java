@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.enam;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * ID  по возрастанию id, поддерживает курсор
+ * RELEVANCE  по убыванию релевантности запросу
+ */
+public enum SearchSort {
+    ID, RELEVANCE;
+
+    public static SearchSort fromValue(String value) {
+        for (SearchSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестная сортировка: " + value);
+    }
+}
@@ -12,6 +12,7 @@ public interface ItemMapper {
     @Mapping(source = "request.id", target = "requestId")
     ItemDtoResponse toItemDtoResponseFromItem(Item item);
 
+    @Mapping(target = "version", ignore = true)
     Item toItemFromItemDto(ItemDto itemDto);
 
     @Mapping(source = "booker.id", target = "bookerId")
@@ -23,6 +24,7 @@ public interface ItemMapper {
     CommentDtoResponse toCommentDtoResponseFromComment(Comment comment);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
     Item toItemFromItemDtoUpdate(ItemDtoUpdate itemDtoUpdate, @MappingTarget Item item);
 
 }
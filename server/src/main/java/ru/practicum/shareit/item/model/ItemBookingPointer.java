@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Текущие последнее и следующее подтверждённые бронирования вещи.
+ * Обновляется при подтверждении бронирований и сдвигается планировщиком, когда наступает nextStart.
+ */
+@Getter
+@Setter
+@Entity
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "item_booking_pointers")
+public class ItemBookingPointer {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+    @Column(name = "next_start")
+    private LocalDateTime nextStart;
+
+    public boolean isStale(LocalDateTime now) {
+        return nextStart != null && !nextStart.isAfter(now);
+    }
+
+    public boolean isEmpty() {
+        return lastBookingId == null && nextBookingId == null;
+    }
+}
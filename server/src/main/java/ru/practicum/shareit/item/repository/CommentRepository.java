@@ -1,10 +1,17 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.item.model.Comment;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(Comment.WITH_AUTHOR)
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
     List<Comment> findByItemIdIn(List<Long> itemIds);
 }
\ No newline at end of file
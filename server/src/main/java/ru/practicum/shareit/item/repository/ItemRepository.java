@@ -1,27 +1,81 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemForRequestDto;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemRepository extends PagingAndSortingRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long> {
     Boolean existsItemByOwnerId(Long ownerId);
 
-    List<Item> findAllByNameIgnoreCaseContainingOrDescriptionIgnoreCaseContainingAndAvailableTrue(Pageable pageable,
-                                                                                                  String name,
-                                                                                                  String description);
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDtoResponse(i.id, i.name, i.description, i.available, " +
+            "i.request.id) " +
+            "FROM Item AS i " +
+            "WHERE i.available = TRUE AND i.id > :afterId " +
+            "AND (UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%')) " +
+            "OR UPPER(i.description) LIKE UPPER(CONCAT('%', :text, '%'))) " +
+            "ORDER BY i.id")
+    List<ItemDtoResponse> searchAvailable(@Param("text") String text, @Param("afterId") Long afterId,
+                                          Pageable pageable);
 
-    @Query("SELECT i.id FROM Item AS i " +
-            "JOIN User AS u ON i.owner.id=u.id " +
-            "WHERE i.owner.id = :ownerId")
-    List<Long> findAllItemIdByOwnerId(@Param("ownerId") Long ownerId);
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDtoResponse(i.id, i.name, i.description, i.available, " +
+            "i.request.id) " +
+            "FROM Item AS i " +
+            "WHERE i.available = TRUE AND i.id > :afterId " +
+            "AND (UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%')) " +
+            "OR UPPER(i.description) LIKE UPPER(CONCAT('%', :text, '%'))) " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking AS b " +
+            "WHERE b.item = i AND b.status = ru.practicum.shareit.booking.enam.Status.APPROVED " +
+            "AND b.start < :end AND b.end > :start) " +
+            "ORDER BY i.id")
+    List<ItemDtoResponse> searchAvailableBetween(@Param("text") String text, @Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end, @Param("afterId") Long afterId,
+                                                 Pageable pageable);
 
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDtoResponse(i.id, i.name, i.description, i.available, " +
+            "i.request.id) " +
+            "FROM Item AS i " +
+            "WHERE i.owner.id = :ownerId AND i.id > :afterId " +
+            "ORDER BY i.id")
+    List<ItemDtoResponse> findAllDtoByOwnerId(@Param("ownerId") Long ownerId, @Param("afterId") Long afterId,
+                                              Pageable pageable);
 
-    List<Item> findAllByOwnerIdOrderByIdAsc(Long userId);
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDtoResponse(i.id, i.name, i.description, i.available, " +
+            "i.request.id) " +
+            "FROM Item AS i " +
+            "WHERE i.id IN :itemIds " +
+            "ORDER BY i.id")
+    List<ItemDtoResponse> findAllDtoByIdIn(@Param("itemIds") Collection<Long> itemIds);
 
-    List<Item> findAllByRequestIdIn(List<Long> requestIds);
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDtoResponse(i.id, i.name, i.description, i.available, " +
+            "i.request.id) " +
+            "FROM Item AS i " +
+            "WHERE i.id > :afterId " +
+            "ORDER BY i.id")
+    List<ItemDtoResponse> findAllDtoAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.shareit.request.dto.ItemForRequestDto(i.id, i.name, i.description, i.available, " +
+            "i.request.id) " +
+            "FROM Item AS i " +
+            "WHERE i.request.id IN :requestIds " +
+            "ORDER BY i.id")
+    List<ItemForRequestDto> findAllForRequestByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item AS i WHERE i.id = :itemId")
+    Optional<Item> findByIdForUpdate(@Param("itemId") Long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item AS i WHERE i.id IN :itemIds ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(@Param("itemIds") Collection<Long> itemIds);
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.item.repository.ItemBookingPointerRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддержка таблицы item_booking_pointers.
+ * Пересчёт выполняется под блокировкой строки вещи, чтобы параллельные пересчёты не затирали друг друга.
+ * При чтении устаревшие указатели пересчитываются в памяти, в базу их сдвигает планировщик.
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class ItemBookingPointerService {
+    private final ItemBookingPointerRepository pointerRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    public void refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        itemRepository.findAllByIdForUpdate(itemIds);
+        Set<Long> existing = pointerRepository.findAllById(itemIds).stream()
+                .map(ItemBookingPointer::getItemId)
+                .collect(Collectors.toSet());
+        pointerRepository.saveAll(compute(itemIds, LocalDateTime.now()).values().stream()
+                .filter(pointer -> !pointer.isEmpty() || existing.contains(pointer.getItemId()))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Пересчёт после фиксации вызывающей транзакции, в отдельной короткой транзакции: вызывающий не держит
+     * блокировку строки вещи. Пересчёт, начатый позже, видит все зафиксированные к его началу подтверждения,
+     * а блокировка выстраивает пересчёты одной вещи по очереди, поэтому последний записанный указатель верен.
+     */
+    public void refreshAfterCommit(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(itemIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+                requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                try {
+                    requiresNew.executeWithoutResult(status -> refresh(itemIds));
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось обновить указатели бронирований вещей {}", itemIds, e);
+                }
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, ItemBookingPointer> getCurrent(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingPointer> pointers = pointerRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingPointer::getItemId, Function.identity()));
+        List<Long> stale = pointers.values().stream()
+                .filter(pointer -> pointer.isStale(now))
+                .map(ItemBookingPointer::getItemId)
+                .collect(Collectors.toList());
+        if (!stale.isEmpty()) {
+            pointers.putAll(compute(stale, now));
+        }
+        return pointers;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-pointers.roll-forward-delay:60000}")
+    public void rollForward() {
+        List<Long> stale = pointerRepository.findAllByNextStartLessThanEqual(LocalDateTime.now()).stream()
+                .map(ItemBookingPointer::getItemId)
+                .collect(Collectors.toList());
+        refresh(stale);
+        if (!stale.isEmpty()) {
+            log.debug("Обновлены указатели бронирований для {} вещей", stale.size());
+        }
+    }
+
+    /**
+     * Указатели для набора вещей за два запроса: по одной строке последнего и следующего бронирования на вещь.
+     */
+    private Map<Long, ItemBookingPointer> compute(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingPointer> pointers = new HashMap<>();
+        itemIds.forEach(itemId -> pointers.put(itemId, ItemBookingPointer.builder().itemId(itemId).build()));
+        for (ItemBookingView last : bookingRepository.findLastByItemIdIn(itemIds, now)) {
+            ItemBookingPointer pointer = pointers.get(last.getItemId());
+            pointer.setLastBookingId(last.getBookingId());
+            pointer.setLastBookerId(last.getBookerId());
+        }
+        for (ItemBookingView next : bookingRepository.findNextByItemIdIn(itemIds, now)) {
+            ItemBookingPointer pointer = pointers.get(next.getItemId());
+            pointer.setNextBookingId(next.getBookingId());
+            pointer.setNextBookerId(next.getBookerId());
+            pointer.setNextStart(next.getStartDate());
+        }
+        return pointers;
+    }
+}
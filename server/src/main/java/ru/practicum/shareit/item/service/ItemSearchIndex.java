@@ -0,0 +1,372 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Триграммный индекс по названию и описанию вещей для поиска подстроки без учёта регистра.
+ * Для каждой триграммы хранится отсортированный массив id вещей. Кандидаты, найденные пересечением
+ * списков, проверяются по самому тексту, поэтому результат совпадает с LIKE '%text%'.
+ * Для подсказок по началу названия доступные вещи дополнительно хранятся в дереве, упорядоченном
+ * по названию в нижнем регистре.
+ * Индекс строится при старте приложения и обновляется после фиксации транзакций createItem и updateItem.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    public static final int GRAM = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double PREFIX_BOOST = 1.0;
+    private static final int LOAD_BATCH = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final NavigableSet<Document> names = new TreeSet<>(Document.BY_NAME);
+    private long nameLength;
+    private long descriptionLength;
+    private volatile boolean ready;
+
+    /**
+     * Запросы короче триграммы обслуживаются базой данных.
+     */
+    public boolean canSearch(String text) {
+        return ready && text.length() >= GRAM;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long afterId = 0L;
+        List<ItemDtoResponse> batch;
+        do {
+            batch = itemRepository.findAllDtoAfter(afterId, PageRequest.of(0, LOAD_BATCH));
+            lock.writeLock().lock();
+            try {
+                for (ItemDtoResponse item : batch) {
+                    if (!documents.containsKey(item.getId())) {
+                        index(item.getId(), new Document(item.getId(), item.getName(), item.getDescription(),
+                                item.getAvailable()));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == LOAD_BATCH);
+        ready = true;
+        log.info("Индекс поиска вещей построен: {} вещей, {} триграмм", documents.size(), postings.size());
+    }
+
+    /**
+     * Обновляет вещь в индексе после фиксации текущей транзакции, при откате индекс не меняется.
+     */
+    public void putAfterCommit(Item item) {
+        Long id = item.getId();
+        Document document = new Document(id, item.getName(), item.getDescription(), item.getAvailable());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(id, document);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(id, document);
+            }
+        });
+    }
+
+    /**
+     * Id доступных вещей, содержащих text, по возрастанию id: после afterId, с пропуском skip, не более limit.
+     */
+    public List<Long> search(String text, long afterId, int skip, int limit) {
+        String query = text.toLowerCase(Locale.ROOT);
+        List<Long> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = postingsOf(query);
+            if (lists.isEmpty()) {
+                return result;
+            }
+            Postings smallest = lists.get(0);
+            int skipped = 0;
+            for (int i = smallest.upperBound(afterId); i < smallest.size && result.size() < limit; i++) {
+                long id = smallest.ids[i];
+                if (!matches(lists, id, query)) {
+                    continue;
+                }
+                if (skipped < skip) {
+                    skipped++;
+                } else {
+                    result.add(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Id limit самых релевантных доступных вещей, содержащих text, по убыванию оценки.
+     * Оценка считается по BM25 отдельно для названия и описания, совпадение в названии весит больше.
+     * Отбор идёт через кучу из limit элементов: O(n log limit) времени и O(limit) памяти на n совпадений.
+     */
+    public List<Long> rank(String text, int limit) {
+        String query = text.toLowerCase(Locale.ROOT);
+        PriorityQueue<Scored> top;
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = postingsOf(query);
+            if (lists.isEmpty() || limit <= 0) {
+                return new ArrayList<>();
+            }
+            Postings smallest = lists.get(0);
+            top = new PriorityQueue<>(Math.min(limit, smallest.size) + 1, Scored.WORST_FIRST);
+            double averageName = (double) nameLength / documents.size();
+            double averageDescription = (double) descriptionLength / documents.size();
+            for (int i = 0; i < smallest.size; i++) {
+                long id = smallest.ids[i];
+                if (!matches(lists, id, query)) {
+                    continue;
+                }
+                Scored scored = new Scored(id, documents.get(id).score(query, averageName, averageDescription));
+                if (top.size() < limit) {
+                    top.add(scored);
+                } else if (Scored.WORST_FIRST.compare(scored, top.peek()) > 0) {
+                    top.poll();
+                    top.add(scored);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll().id);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Не более limit доступных вещей, название которых начинается с prefix без учёта регистра, по алфавиту.
+     */
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        Document from = new Document(Long.MIN_VALUE, prefix, "", true);
+        List<ItemSuggestionDto> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Document document : names.tailSet(from, true)) {
+                if (result.size() == limit || !document.name.startsWith(from.name)) {
+                    break;
+                }
+                result.add(ItemSuggestionDto.builder().id(document.id).name(document.title).build());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Списки триграмм запроса от самого короткого; пустой результат, если какой-то триграммы нет в индексе.
+     */
+    private List<Postings> postingsOf(String query) {
+        List<Postings> lists = new ArrayList<>();
+        for (long gram : gramsOf(query)) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new ArrayList<>();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        return lists;
+    }
+
+    private boolean matches(List<Postings> lists, long id, String query) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        Document document = documents.get(id);
+        return document.available && document.contains(query);
+    }
+
+    void put(Long id, Document document) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(id);
+            if (previous != null) {
+                names.remove(previous);
+                nameLength -= previous.name.length();
+                descriptionLength -= previous.description.length();
+                Set<Long> stale = previous.grams();
+                stale.removeAll(document.grams());
+                for (long gram : stale) {
+                    Postings list = postings.get(gram);
+                    list.remove(id);
+                    if (list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            index(id, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Long id, Document document) {
+        documents.put(id, document);
+        if (document.available) {
+            names.add(document);
+        }
+        nameLength += document.name.length();
+        descriptionLength += document.description.length();
+        for (long gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Триграмма упаковывается в long: три символа UTF-16 по 16 бит.
+     */
+    private static Set<Long> gramsOf(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    static class Document {
+        static final Comparator<Document> BY_NAME = Comparator.<Document, String>comparing(document -> document.name)
+                .thenComparingLong(document -> document.id);
+
+        private final long id;
+        private final String title;
+        private final String name;
+        private final String description;
+        private final boolean available;
+
+        Document(long id, String name, String description, Boolean available) {
+            this.id = id;
+            this.title = name;
+            this.name = name.toLowerCase(Locale.ROOT);
+            this.description = description.toLowerCase(Locale.ROOT);
+            this.available = Boolean.TRUE.equals(available);
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<Long> grams() {
+            Set<Long> grams = gramsOf(name);
+            grams.addAll(gramsOf(description));
+            return grams;
+        }
+
+        double score(String query, double averageName, double averageDescription) {
+            double score = NAME_WEIGHT * saturate(occurrences(name, query), name.length(), averageName)
+                    + saturate(occurrences(description, query), description.length(), averageDescription);
+            return name.startsWith(query) ? score + PREFIX_BOOST : score;
+        }
+
+        private static double saturate(int frequency, int length, double averageLength) {
+            if (frequency == 0) {
+                return 0;
+            }
+            return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+        }
+
+        private static int occurrences(String text, String query) {
+            int count = 0;
+            for (int from = text.indexOf(query); from >= 0; from = text.indexOf(query, from + 1)) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Вещь с оценкой; в голове кучи худшая: меньшая оценка, при равенстве больший id.
+     */
+    private static class Scored {
+        static final Comparator<Scored> WORST_FIRST = Comparator.<Scored>comparingDouble(scored -> scored.score)
+                .thenComparing(scored -> -scored.id);
+
+        private final long id;
+        private final double score;
+
+        Scored(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Отсортированный список id. Новые вещи получают растущие id, поэтому вставка обычно идёт в конец.
+     */
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0 && position < size) {
+                return;
+            }
+            position = position < 0 ? -position - 1 : position;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        int upperBound(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoResponse;
 import ru.practicum.shareit.item.dto.ItemDtoUpdate;
 import ru.practicum.shareit.item.dto.ItemListDto;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
+import ru.practicum.shareit.item.dto.ItemSuggestionListDto;
+
+import java.time.LocalDateTime;
 
 public interface ItemService {
     ItemDtoResponse createItem(ItemDto item, Long userId);
@@ -13,7 +18,11 @@ public interface ItemService {
 
     ItemDtoResponse getItemById(Long userId, Long itemId);
 
-    ItemListDto getAllItemsOwner(Long userId, int from, int size);
+    ItemListDto getAllItemsOwner(Long userId, int from, int size, String cursor);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    ItemListDto search(ItemSearchFilter filter);
 
-    ItemListDto search(String text, int from, int size);
+    ItemSuggestionListDto suggest(String prefix, int size);
 }
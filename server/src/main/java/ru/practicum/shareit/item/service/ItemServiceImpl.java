@@ -1,24 +1,32 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingLimitDto;
 import ru.practicum.shareit.booking.enam.Status;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.enam.SearchSort;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilits.Cursor;
+import ru.practicum.shareit.utilits.OptimisticRetry;
 import ru.practicum.shareit.utilits.ShareItPageRequest;
 
 import java.time.LocalDateTime;
@@ -31,12 +39,22 @@ import static java.util.stream.Collectors.toList;
 @Transactional
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    /**
+     * Сколько первых результатов можно пролистать при сортировке по релевантности: куча отбора растёт с from + size.
+     */
+    private static final int MAX_RELEVANCE_WINDOW = 1000;
+
     private final ItemMapper itemMapper;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final OptimisticRetry optimisticRetry;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingPointerService itemBookingPointerService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemRequestService itemRequestService;
 
     @Override
     public ItemDtoResponse createItem(ItemDto item, Long userId) throws ResponseStatusException {
@@ -49,19 +67,28 @@ public class ItemServiceImpl implements ItemService {
         }
         itemNew.setOwner(userRepository.findById(userId).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + userId + " не найден")));
-        return itemMapper.toItemDtoResponseFromItem(itemRepository.save(itemNew));
+        Item saved = itemRepository.save(itemNew);
+        itemSearchIndex.putAfterCommit(saved);
+        itemRequestService.suggestRequests(saved);
+        return itemMapper.toItemDtoResponseFromItem(saved);
     }
 
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ItemDtoResponse updateItem(Long itemId, Long userId, ItemDtoUpdate item) {
+        return optimisticRetry.execute(() -> doUpdateItem(itemId, userId, item));
+    }
+
+    private ItemDtoResponse doUpdateItem(Long itemId, Long userId, ItemDtoUpdate item) {
         Item itemUp = itemRepository.findById(itemId).orElseThrow(() ->
                 new ResponseStatusException(HttpStatus.NOT_FOUND, "Вещь " + itemId + " не найдена"));
-        setComments(List.of(itemUp));
         if (!itemUp.getOwner().getId().equals(userId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
                     "У пользователя " + userId + " не найдена вещь " + itemId);
         }
+        String name = itemUp.getName();
+        String description = itemUp.getDescription();
         if (item.getName() != null && !item.getName().isBlank()) {
             itemUp.setName(item.getName());
         }
@@ -72,7 +99,14 @@ public class ItemServiceImpl implements ItemService {
             itemUp.setAvailable(item.getAvailable());
         }
 
-        return itemMapper.toItemDtoResponseFromItem(itemRepository.save(itemMapper.toItemFromItemDtoUpdate(item, itemUp)));
+        Item saved = itemRepository.saveAndFlush(itemMapper.toItemFromItemDtoUpdate(item, itemUp));
+        itemSearchIndex.putAfterCommit(saved);
+        if (!saved.getName().equals(name) || !saved.getDescription().equals(description)) {
+            itemRequestService.rematchRequests(saved);
+        }
+        ItemDtoResponse itemDtoResponse = itemMapper.toItemDtoResponseFromItem(saved);
+        setComments(List.of(itemDtoResponse));
+        return itemDtoResponse;
     }
 
 
@@ -81,90 +115,157 @@ public class ItemServiceImpl implements ItemService {
     public ItemDtoResponse getItemById(Long userId, Long itemId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new ResponseStatusException(HttpStatus.NOT_FOUND, " Вещь " + itemId + " не найдена"));
-        setComments(List.of(item));
         ItemDtoResponse itemDtoResponse = itemMapper.toItemDtoResponseFromItem(item);
+        setComments(List.of(itemDtoResponse));
         if (item.getOwner().getId().equals(userId)) {
-            Booking lastBooking = bookingRepository
-                    .findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(itemId, LocalDateTime.now(), Status.APPROVED)
-                    .orElse(null);
-            Booking nextBooking = bookingRepository
-                    .findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(itemId, LocalDateTime.now(), Status.APPROVED)
-                    .orElse(null);
-            itemDtoResponse.setLastBooking(itemMapper.toBookingLimitDtoFromBooking(lastBooking));
-            itemDtoResponse.setNextBooking(itemMapper.toBookingLimitDtoFromBooking(nextBooking));
-            return itemDtoResponse;
+            setBookings(List.of(itemDtoResponse));
         }
         return itemDtoResponse;
     }
 
 
+    /**
+     * Страница вещей владельца по возрастанию id. Отзывы и бронирования загружаются только для вещей страницы.
+     * С курсором страница продолжается после последней выданной вещи без пропуска строк через OFFSET.
+     */
     @Override
     @Transactional(readOnly = true)
-    public ItemListDto getAllItemsOwner(Long userId, int from, int size) {
+    public ItemListDto getAllItemsOwner(Long userId, int from, int size, String cursor) {
         if (!userRepository.existsById(userId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + userId + " не найден");
         }
-        List<Item> items = itemRepository.findAllByOwnerIdOrderByIdAsc(userId);
+        Long afterId = cursor == null ? 0L : Cursor.decode(cursor).getId();
+        Pageable page = cursor == null ? new ShareItPageRequest(from, size) : PageRequest.of(0, size);
+        List<ItemDtoResponse> items = itemRepository.findAllDtoByOwnerId(userId, afterId, page);
         setComments(items);
-        List<ItemDtoResponse> personalItems = new ArrayList<>();
-
-        List<Booking> beforeBookings = bookingRepository.findAllByItemIdInAndStartBeforeAndStatusOrderByItemIdAscEndDesc(
-                items.stream().map(Item::getId).collect(Collectors.toList()),
-                LocalDateTime.now(), Status.APPROVED
-        );
-        List<Booking> afterBookings = bookingRepository.findAllByItemIdInAndStartAfterAndStatusOrderByItemIdAscStartAsc(
-                items.stream().map(Item::getId).collect(Collectors.toList()),
-                LocalDateTime.now(), Status.APPROVED
-        );
-        Map<Long, List<Booking>> beforeBookingsMap = beforeBookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-        Map<Long, List<Booking>> afterBookingsMap = afterBookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-
-        for (Item item : items) {
-            ItemDtoResponse itemDto = itemMapper.toItemDtoResponseFromItem(item);
-
-            List<Booking> lastBookings = beforeBookingsMap.get(item.getId());
-            if (lastBookings != null && !lastBookings.isEmpty()) {
-                Booking lastBooking = lastBookings.get(0);
-                itemDto.setLastBooking(itemMapper.toBookingLimitDtoFromBooking(lastBooking));
-            } else {
-                itemDto.setLastBooking(null);
-            }
+        setBookings(items);
 
-            List<Booking> nextBookings = afterBookingsMap.get(item.getId());
-            if (nextBookings != null && !nextBookings.isEmpty()) {
-                Booking nextBooking = nextBookings.get(0);
-                itemDto.setNextBooking(itemMapper.toBookingLimitDtoFromBooking(nextBooking));
+        return ItemListDto.builder()
+                .items(items)
+                .next(Cursor.next(items, size, item -> Cursor.of(item.getId())))
+                .build();
+    }
+
+    /**
+     * Календарь занятости вещи на будущее строится по индексу интервалов в памяти, таблица бронирований не читается;
+     * окно, начавшееся в прошлом, читается из базы.
+     * Соседние занятые интервалы объединяются.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Начало периода должно быть раньше его окончания");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Вещь " + itemId + " не найдена");
+        }
+        List<AvailabilitySlotDto> slots = new ArrayList<>();
+        LocalDateTime free = from;
+        for (BookingIntervalIndex.Span span : bookingIntervalIndex.between(itemId, from, to)) {
+            LocalDateTime start = span.getStart().isBefore(from) ? from : span.getStart();
+            LocalDateTime end = span.getEnd().isAfter(to) ? to : span.getEnd();
+            if (free.isBefore(start)) {
+                slots.add(AvailabilitySlotDto.builder().start(free).end(start).free(true).build());
+            }
+            AvailabilitySlotDto last = slots.isEmpty() ? null : slots.get(slots.size() - 1);
+            if (last != null && !last.isFree() && !last.getEnd().isBefore(start)) {
+                if (end.isAfter(last.getEnd())) {
+                    last.setEnd(end);
+                }
             } else {
-                itemDto.setNextBooking(null);
+                slots.add(AvailabilitySlotDto.builder().start(start).end(end).free(false).build());
+            }
+            if (end.isAfter(free)) {
+                free = end;
             }
-
-            personalItems.add(itemDto);
         }
-
-        return ItemListDto.builder().items(personalItems).build();
+        if (free.isBefore(to)) {
+            slots.add(AvailabilitySlotDto.builder().start(free).end(to).free(true).build());
+        }
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .slots(slots)
+                .build();
     }
 
+    /**
+     * Поиск без периода идёт по триграммному индексу, из базы читаются только вещи страницы по id.
+     * Поиск свободных в период вещей и запросы короче триграммы выполняются в базе.
+     * Сортировка по релевантности считается по индексу, без курсора и без периода;
+     * для запросов короче триграммы вещи выдаются по возрастанию id.
+     */
     @Override
     @Transactional(readOnly = true)
-    public ItemListDto search(String text, int from, int size) {
-        Pageable pageable = new ShareItPageRequest(from, size);
-        if (text.isBlank()) {
+    public ItemListDto search(ItemSearchFilter filter) {
+        if ((filter.getStart() == null) != (filter.getEnd() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Период поиска задаётся параметрами start и end");
+        }
+        if (filter.getStart() != null && !filter.getStart().isBefore(filter.getEnd())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Начало периода должно быть раньше его окончания");
+        }
+        boolean byRelevance = filter.getSort() == SearchSort.RELEVANCE;
+        if (byRelevance && filter.getStart() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Сортировка по релевантности недоступна при поиске по периоду");
+        }
+        if (byRelevance && filter.getCursor() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Курсор не поддерживается при сортировке по релевантности");
+        }
+        if (byRelevance && (long) filter.getFrom() + filter.getSize() > MAX_RELEVANCE_WINDOW) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "При сортировке по релевантности доступны только первые " + MAX_RELEVANCE_WINDOW + " вещей");
+        }
+        if (filter.getText().isBlank()) {
             return ItemListDto.builder().items(new ArrayList<>()).build();
         }
-        List<Item> items = itemRepository
-                .findAllByNameIgnoreCaseContainingOrDescriptionIgnoreCaseContainingAndAvailableTrue(pageable, text, text);
+        if (byRelevance && itemSearchIndex.canSearch(filter.getText())) {
+            List<Long> ranked = itemSearchIndex.rank(filter.getText(), filter.getFrom() + filter.getSize());
+            List<ItemDtoResponse> items = findAllDtoInOrder(ranked.subList(Math.min(filter.getFrom(), ranked.size()),
+                    ranked.size()));
+            setComments(items);
+            return ItemListDto.builder().items(items).build();
+        }
+        int size = filter.getSize();
+        Long afterId = filter.getCursor() == null ? 0L : Cursor.decode(filter.getCursor()).getId();
+        Pageable page = filter.getCursor() == null ? new ShareItPageRequest(filter.getFrom(), size) : PageRequest.of(0, size);
+        List<ItemDtoResponse> items;
+        if (filter.getStart() == null && itemSearchIndex.canSearch(filter.getText())) {
+            List<Long> ids = itemSearchIndex.search(filter.getText(), afterId,
+                    filter.getCursor() == null ? filter.getFrom() : 0, size);
+            items = ids.isEmpty() ? new ArrayList<>() : itemRepository.findAllDtoByIdIn(ids);
+        } else if (filter.getStart() != null) {
+            items = itemRepository.searchAvailableBetween(filter.getText(), filter.getStart(), filter.getEnd(),
+                    afterId, page);
+        } else {
+            items = itemRepository.searchAvailable(filter.getText(), afterId, page);
+        }
         setComments(items);
         return ItemListDto.builder()
-                .items(items
-                        .stream()
-                        .map(itemMapper::toItemDtoResponseFromItem)
-                        .collect(toList()))
+                .items(items)
+                .next(Cursor.next(items, size, item -> Cursor.of(item.getId())))
                 .build();
     }
 
 
+    /**
+     * Подсказки по началу названия отдаются из индекса в памяти без обращения к базе.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ItemSuggestionListDto suggest(String prefix, int size) {
+        if (!itemSearchIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Индекс поиска ещё строится");
+        }
+        String normalized = prefix.strip();
+        return ItemSuggestionListDto.builder()
+                .suggestions(normalized.isEmpty() ? new ArrayList<>() : itemSearchIndex.suggest(normalized, size))
+                .build();
+    }
+
     public CommentDtoResponse createComment(Long itemId, Long userId, CommentDto commentDto) {
         if (!bookingRepository.existsBookingByItemIdAndBookerIdAndStatusAndEndIsBefore(itemId, userId,
                 Status.APPROVED, LocalDateTime.now())) {
@@ -183,17 +284,44 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
-    @Transactional(readOnly = true)
-    public void setComments(List<Item> items) {
-        List<Long> itemIds = items.stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
-        List<Comment> allComments = commentRepository.findByItemIdIn(itemIds);
-        Map<Long, List<Comment>> commentsMap = allComments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
-        for (Item item : items) {
-            List<Comment> comments = commentsMap.getOrDefault(item.getId(), Collections.emptyList());
-            item.setComments(new HashSet<>(comments));
+    private List<ItemDtoResponse> findAllDtoInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ItemDtoResponse> items = itemRepository.findAllDtoByIdIn(ids).stream()
+                .collect(Collectors.toMap(ItemDtoResponse::getId, item -> item));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    private void setComments(List<ItemDtoResponse> items) {
+        Map<Long, Set<CommentDtoResponse>> comments = commentRepository.findByItemIdIn(items.stream()
+                        .map(ItemDtoResponse::getId)
+                        .collect(toList()))
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(itemMapper::toCommentDtoResponseFromComment, Collectors.toSet())));
+        for (ItemDtoResponse item : items) {
+            item.setComments(comments.getOrDefault(item.getId(), new HashSet<>()));
         }
     }
+
+    private void setBookings(List<ItemDtoResponse> items) {
+        Map<Long, ItemBookingPointer> pointers = itemBookingPointerService.getCurrent(items.stream()
+                .map(ItemDtoResponse::getId)
+                .collect(toList()));
+        for (ItemDtoResponse item : items) {
+            ItemBookingPointer pointer = pointers.get(item.getId());
+            if (pointer != null) {
+                item.setLastBooking(toBookingLimitDto(pointer.getLastBookingId(), pointer.getLastBookerId()));
+                item.setNextBooking(toBookingLimitDto(pointer.getNextBookingId(), pointer.getNextBookerId()));
+            }
+        }
+    }
+
+    private static BookingLimitDto toBookingLimitDto(Long bookingId, Long bookerId) {
+        return bookingId == null ? null : BookingLimitDto.builder().id(bookingId).bookerId(bookerId).build();
+    }
 }
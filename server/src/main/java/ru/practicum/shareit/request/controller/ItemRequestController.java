@@ -2,15 +2,20 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 import ru.practicum.shareit.request.dto.ItemRequestListDto;
 import ru.practicum.shareit.request.dto.RequestDtoResponse;
+import ru.practicum.shareit.request.dto.RequestSuggestionListDto;
+import ru.practicum.shareit.request.service.ItemRequestEventService;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.utilits.PageResponse;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
@@ -25,6 +30,7 @@ import static ru.practicum.shareit.utilits.Constants.*;
 @RequiredArgsConstructor
 public class ItemRequestController {
     private final ItemRequestService itemRequestService;
+    private final ItemRequestEventService itemRequestEventService;
 
     @PostMapping
     public ResponseEntity<ItemRequestDtoResponse> createRequest(@RequestHeader(USER_ID_HEADER) @Positive Long requesterId,
@@ -41,11 +47,11 @@ public class ItemRequestController {
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
             @PositiveOrZero int from,
             @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-            @Positive int size) {
+            @Positive int size,
+            @RequestParam(required = false) String cursor) {
         log.info("Запрос на получение запросов владельца");
-        return ResponseEntity.ok()
-                .body(itemRequestService
-                        .getOwnerRequests(requesterId, from, size));
+        ItemRequestListDto requests = itemRequestService.getOwnerRequests(requesterId, from, size, cursor);
+        return PageResponse.ok(requests, requests.getNext());
     }
 
 
@@ -55,11 +61,21 @@ public class ItemRequestController {
             @RequestParam(defaultValue = DEFAULT_FROM_VALUE)
             @PositiveOrZero int from,
             @RequestParam(defaultValue = DEFAULT_SIZE_VALUE)
-            @Positive int size) {
+            @Positive int size,
+            @RequestParam(required = false) String cursor) {
         log.info("Запрос на получение запросов пользователя");
+        ItemRequestListDto requests = itemRequestService.getUserRequests(requesterId, from, size, cursor);
+        return PageResponse.ok(requests, requests.getNext());
+    }
+
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRequests(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @RequestParam(required = false) String keywords,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        log.info("Подписка пользователя {} на новые запросы, ключевые слова: {}", userId, keywords);
         return ResponseEntity.ok()
-                .body(itemRequestService
-                        .getUserRequests(requesterId, from, size));
+                .body(itemRequestEventService.subscribe(userId, keywords, lastEventId));
     }
 
     @GetMapping("{requestId}")
@@ -70,4 +86,13 @@ public class ItemRequestController {
         return ResponseEntity.ok()
                 .body(itemRequestService.getItemRequestById(userId, requestId));
     }
+
+    @GetMapping("{requestId}/suggestions")
+    public ResponseEntity<RequestSuggestionListDto> getSuggestions(
+            @RequestHeader(USER_ID_HEADER) @Positive Long userId,
+            @PathVariable @Positive Long requestId) {
+        log.info("Запрос на получение подобранных вещей для запроса {} у пользователя {}", requestId, userId);
+        return ResponseEntity.ok()
+                .body(itemRequestService.getSuggestions(userId, requestId));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ItemRequestEventDto {
+    private Long id;
+    private String description;
+    private Long requesterId;
+    private LocalDateTime created;
+}
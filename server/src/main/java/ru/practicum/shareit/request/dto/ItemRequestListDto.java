@@ -11,4 +11,5 @@ import java.util.List;
 public class ItemRequestListDto {
     @JsonValue
     private List<RequestDtoResponse> requests;
+    private String next;
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.dto;
+
+/**
+ * Проекция запроса, на который ещё не ответили вещью, для индекса подбора.
+ */
+public interface OpenRequestView {
+    Long getId();
+
+    Long getRequesterId();
+
+    String getDescription();
+}
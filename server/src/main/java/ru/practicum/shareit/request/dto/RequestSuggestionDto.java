@@ -0,0 +1,19 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class RequestSuggestionDto {
+    private Long itemId;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Integer score;
+    private LocalDateTime created;
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Открытый запрос, к которому подобрана вещь владельца.
+ * requestCreated  дата создания запроса
+ * created  дата подбора
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class SuggestedRequestDto {
+    private Long requestId;
+    private String description;
+    private LocalDateTime requestCreated;
+    private Integer score;
+    private LocalDateTime created;
+}
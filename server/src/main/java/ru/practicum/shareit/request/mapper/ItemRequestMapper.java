@@ -2,8 +2,6 @@ package ru.practicum.shareit.request.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.request.dto.ItemForRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 import ru.practicum.shareit.request.dto.RequestDtoResponse;
@@ -17,9 +15,7 @@ public interface ItemRequestMapper {
 
     ItemRequestDtoResponse toItemRequestResponseDtoFromItemRequest(ItemRequest itemRequest);
 
-    @Mapping(source = "request.id", target = "requestId")
-    ItemForRequestDto toItemForRequestDtoFromItem(Item item);
-
+    @Mapping(target = "items", ignore = true)
     RequestDtoResponse toListRequestDtoToResponseFromListItemRequest(ItemRequest itemRequest);
 
     List<RequestDtoResponse> toListRequestDtoToResponseFromListItemRequest(List<ItemRequest> itemRequests);
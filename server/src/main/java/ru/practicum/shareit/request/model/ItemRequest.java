@@ -1,12 +1,10 @@
 package ru.practicum.shareit.request.model;
 
 import lombok.*;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
-import java.util.Set;
 
 /**
  * TODO Sprint add-item-requests.
@@ -30,13 +28,11 @@ public class ItemRequest {
     @EqualsAndHashCode.Include
     @Column(nullable = false, length = 1000)
     private String description;
-    @EqualsAndHashCode.Include
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requester_id")
     private User requester;
     @EqualsAndHashCode.Include
     @Column
     private LocalDateTime created;
-    @Transient
-    private Set<Item> items;
 }
\ No newline at end of file
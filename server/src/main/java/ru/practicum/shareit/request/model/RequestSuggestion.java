@@ -0,0 +1,34 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Вещь, подобранная к открытому запросу по совпадению слов описания.
+ * score  число общих слов запроса и вещи
+ */
+@Getter
+@Setter
+@Entity
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "request_suggestions")
+public class RequestSuggestion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "suggestion_id")
+    private Long id;
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    @Column(nullable = false)
+    private Integer score;
+    @Column(nullable = false)
+    private LocalDateTime created;
+}
@@ -1,14 +1,36 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.dto.OpenRequestView;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends PagingAndSortingRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequesterId(Pageable pageable, @Param("user_id") Long requesterId);
 
     List<ItemRequest> findAllByRequesterIdNot(Pageable pageable, Long requesterId);
-}
\ No newline at end of file
+
+    @Query("SELECT r FROM ItemRequest AS r " +
+            "WHERE r.requester.id = :requesterId " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequesterIdBefore(Pageable pageable, @Param("requesterId") Long requesterId,
+                                                 @Param("created") LocalDateTime created, @Param("id") Long id);
+
+    @Query("SELECT r FROM ItemRequest AS r " +
+            "WHERE r.requester.id <> :requesterId " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequesterIdNotBefore(Pageable pageable, @Param("requesterId") Long requesterId,
+                                                    @Param("created") LocalDateTime created, @Param("id") Long id);
+
+    @Query("SELECT r.id AS id, r.requester.id AS requesterId, r.description AS description " +
+            "FROM ItemRequest AS r " +
+            "WHERE NOT EXISTS (SELECT i.id FROM Item AS i WHERE i.request = r)")
+    List<OpenRequestView> findAllOpen();
+}
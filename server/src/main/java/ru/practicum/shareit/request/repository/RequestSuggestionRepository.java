@@ -0,0 +1,31 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.dto.RequestSuggestionDto;
+import ru.practicum.shareit.request.dto.SuggestedRequestDto;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+
+import java.util.List;
+
+public interface RequestSuggestionRepository extends JpaRepository<RequestSuggestion, Long> {
+    @Query("SELECT new ru.practicum.shareit.request.dto.RequestSuggestionDto(s.itemId, i.name, i.description, " +
+            "i.available, s.score, s.created) " +
+            "FROM RequestSuggestion AS s, Item AS i " +
+            "WHERE i.id = s.itemId AND s.requestId = :requestId " +
+            "ORDER BY s.score DESC, s.id")
+    List<RequestSuggestionDto> findAllDtoByRequestId(@Param("requestId") Long requestId);
+
+    @Query("SELECT new ru.practicum.shareit.request.dto.SuggestedRequestDto(s.requestId, r.description, r.created, " +
+            "s.score, s.created) " +
+            "FROM RequestSuggestion AS s, ItemRequest AS r " +
+            "WHERE r.id = s.requestId AND s.itemId = :itemId " +
+            "ORDER BY s.score DESC, s.id")
+    List<SuggestedRequestDto> findAllDtoByItemId(@Param("itemId") Long itemId);
+
+    @Modifying
+    @Query("DELETE FROM RequestSuggestion AS s WHERE s.itemId = :itemId")
+    int deleteAllByItemId(@Param("itemId") Long itemId);
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.request.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.request.dto.ItemRequestEventDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilits.EventHub;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Общая лента новых запросов вещей. Подписчик не получает свои запросы и может оставить только те,
+ * в описании которых встречается хотя бы одно из ключевых слов.
+ */
+@Service
+public class ItemRequestEventService {
+    private static final String FEED = "all";
+    private static final int HISTORY_SIZE = 200;
+    private static final int BUFFER_SIZE = 256;
+
+    private final UserRepository userRepository;
+    private final EventHub<String, ItemRequestEventDto> feed;
+
+    public ItemRequestEventService(UserRepository userRepository,
+                                   @Value("${shareit.events.timeout:1800000}") long timeoutMillis,
+                                   @Value("${shareit.events.retention:600000}") long retentionMillis,
+                                   @Value("${shareit.events.send-threads:8}") int sendThreads) {
+        this.userRepository = userRepository;
+        this.feed = new EventHub<>("request", HISTORY_SIZE, BUFFER_SIZE, timeoutMillis, retentionMillis,
+                EventHub.daemonExecutor("request-events", sendThreads));
+    }
+
+    public SseEmitter subscribe(Long userId, @Nullable String keywords, @Nullable String lastEventId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + userId + " отсутствует");
+        }
+        Predicate<ItemRequestEventDto> filter = event -> !event.getRequesterId().equals(userId);
+        List<String> words = parseKeywords(keywords);
+        if (!words.isEmpty()) {
+            filter = filter.and(event -> {
+                String description = event.getDescription().toLowerCase(Locale.ROOT);
+                return words.stream().anyMatch(description::contains);
+            });
+        }
+        return feed.subscribe(FEED, lastEventId, filter);
+    }
+
+    public void created(ItemRequest itemRequest) {
+        feed.publishAfterCommit(FEED, ItemRequestEventDto.builder()
+                .id(itemRequest.getId())
+                .description(itemRequest.getDescription())
+                .requesterId(itemRequest.getRequester().getId())
+                .created(itemRequest.getCreated())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.events.heartbeat-delay:15000}")
+    public void heartbeat() {
+        feed.heartbeat();
+    }
+
+    private static List<String> parseKeywords(@Nullable String keywords) {
+        if (keywords == null) {
+            return List.of();
+        }
+        return Arrays.stream(keywords.toLowerCase(Locale.ROOT).split("[,\\s]+"))
+                .filter(word -> !word.isBlank())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
@@ -1,16 +1,27 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 import ru.practicum.shareit.request.dto.ItemRequestListDto;
 import ru.practicum.shareit.request.dto.RequestDtoResponse;
+import ru.practicum.shareit.request.dto.RequestSuggestionListDto;
+import ru.practicum.shareit.request.dto.SuggestedRequestListDto;
 
 public interface ItemRequestService {
     ItemRequestDtoResponse createItemRequest(ItemRequestDto itemRequestDto, Long requesterId);
 
-    ItemRequestListDto getOwnerRequests(Long requesterId, int from, int size);
+    ItemRequestListDto getOwnerRequests(Long requesterId, int from, int size, String cursor);
 
-    ItemRequestListDto getUserRequests(Long requesterId, int from, int size);
+    ItemRequestListDto getUserRequests(Long requesterId, int from, int size, String cursor);
 
     RequestDtoResponse getItemRequestById(Long userId, Long requestId);
+
+    RequestSuggestionListDto getSuggestions(Long userId, Long requestId);
+
+    SuggestedRequestListDto getItemSuggestions(Long userId, Long itemId);
+
+    void suggestRequests(Item item);
+
+    void rematchRequests(Item item);
 }
@@ -1,29 +1,32 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
-import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemForRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoResponse;
 import ru.practicum.shareit.request.dto.ItemRequestListDto;
 import ru.practicum.shareit.request.dto.RequestDtoResponse;
+import ru.practicum.shareit.request.dto.RequestSuggestionListDto;
+import ru.practicum.shareit.request.dto.SuggestedRequestListDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilits.Cursor;
 import ru.practicum.shareit.utilits.ShareItPageRequest;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -37,8 +40,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestMapper itemRequestMapper;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
-    private final CommentRepository commentRepository;
     private final UserRepository users;
+    private final RequestSuggestionRepository requestSuggestionRepository;
+    private final RequestMatchIndex requestMatchIndex;
+    private final ItemRequestEventService itemRequestEventService;
 
     @Override
     public ItemRequestDtoResponse createItemRequest(ItemRequestDto itemRequestDto, Long requesterId) {
@@ -47,35 +52,55 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ItemRequest itemRequestNew = itemRequestMapper.toItemRequestFromItemRequestDto(itemRequestDto);
         itemRequestNew.setRequester(user);
         itemRequestNew.setCreated(LocalDateTime.now());
-        return itemRequestMapper.toItemRequestResponseDtoFromItemRequest(itemRequestRepository.save(itemRequestNew));
+        ItemRequest saved = itemRequestRepository.save(itemRequestNew);
+        requestMatchIndex.openAfterCommit(saved.getId(), requesterId, saved.getDescription());
+        itemRequestEventService.created(saved);
+        return itemRequestMapper.toItemRequestResponseDtoFromItemRequest(saved);
     }
 
     @Override
-    public ItemRequestListDto getOwnerRequests(Long requesterId, int from, int size) {
-        Pageable pageable = new ShareItPageRequest(from, size, SORT_BY_CREATED_DESC);
+    public ItemRequestListDto getOwnerRequests(Long requesterId, int from, int size, String cursor) {
         if (!users.existsById(requesterId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + requesterId + " отсутствует");
         }
 
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterId(pageable, requesterId);
-        setItems(itemRequests);
-
-        return ItemRequestListDto.builder()
-                .requests(itemRequestMapper.toListRequestDtoToResponseFromListItemRequest(itemRequests)).build();
+        List<ItemRequest> itemRequests;
+        if (cursor != null) {
+            Cursor after = Cursor.decodePositioned(cursor);
+            itemRequests = itemRequestRepository.findAllByRequesterIdBefore(PageRequest.of(0, size), requesterId,
+                    after.getPosition(), after.getId());
+        } else {
+            itemRequests = itemRequestRepository.findAllByRequesterId(
+                    new ShareItPageRequest(from, size, SORT_BY_CREATED_DESC), requesterId);
+        }
+        return toItemRequestListDto(itemRequests, size);
     }
 
     @Override
-    public ItemRequestListDto getUserRequests(Long requesterId, int from, int size) {
-        Pageable pageable = new ShareItPageRequest(from, size, SORT_BY_CREATED_DESC);
+    public ItemRequestListDto getUserRequests(Long requesterId, int from, int size, String cursor) {
         if (!users.existsById(requesterId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + requesterId + " отсутствует");
         }
 
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterIdNot(pageable, requesterId);
-        setItems(itemRequests);
+        List<ItemRequest> itemRequests;
+        if (cursor != null) {
+            Cursor after = Cursor.decodePositioned(cursor);
+            itemRequests = itemRequestRepository.findAllByRequesterIdNotBefore(PageRequest.of(0, size), requesterId,
+                    after.getPosition(), after.getId());
+        } else {
+            itemRequests = itemRequestRepository.findAllByRequesterIdNot(
+                    new ShareItPageRequest(from, size, SORT_BY_CREATED_DESC), requesterId);
+        }
+        return toItemRequestListDto(itemRequests, size);
+    }
 
+    private ItemRequestListDto toItemRequestListDto(List<ItemRequest> itemRequests, int size) {
+        List<RequestDtoResponse> requests = itemRequestMapper.toListRequestDtoToResponseFromListItemRequest(itemRequests);
+        setItems(requests);
         return ItemRequestListDto.builder()
-                .requests(itemRequestMapper.toListRequestDtoToResponseFromListItemRequest(itemRequests)).build();
+                .requests(requests)
+                .next(Cursor.next(requests, size, request -> Cursor.of(request.getCreated(), request.getId())))
+                .build();
     }
 
 
@@ -88,33 +113,104 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Запрос " + requestId + " не найден")
         );
-        setItems(List.of(itemRequest));
+        RequestDtoResponse request = itemRequestMapper.toListRequestDtoToResponseFromListItemRequest(itemRequest);
+        setItems(List.of(request));
+        return request;
+    }
 
-        return itemRequestMapper.toListRequestDtoToResponseFromListItemRequest(itemRequest);
+    /**
+     * Вещи, подобранные к запросу, видит только его автор.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public RequestSuggestionListDto getSuggestions(Long userId, Long requestId) {
+        if (!users.existsById(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь " + userId + " отсутствует");
+        }
+        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Запрос " + requestId + " не найден")
+        );
+        if (!itemRequest.getRequester().getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "У пользователя " + userId + " не найден запрос " + requestId);
+        }
+        return RequestSuggestionListDto.builder()
+                .suggestions(requestSuggestionRepository.findAllDtoByRequestId(requestId))
+                .build();
     }
 
+    /**
+     * Запросы, подобранные к вещи, видит только её владелец. Чтение идёт по индексу подсказок по item_id.
+     */
+    @Override
     @Transactional(readOnly = true)
-    public void setItems(List<ItemRequest> itemRequests) {
-        List<Long> requestIds = itemRequests.stream()
-                .map(ItemRequest::getId)
-                .collect(Collectors.toList());
-        List<Item> items = itemRepository.findAllByRequestIdIn(requestIds);
-        List<Long> itemIds = items.stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
-        List<Comment> comments = commentRepository.findByItemIdIn(itemIds);
-        Map<Long, List<Comment>> commentsMap = comments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
-        for (Item item : items) {
-            List<Comment> itemComments = commentsMap.getOrDefault(item.getId(), Collections.emptyList());
-            item.setComments(new HashSet<>(itemComments));
+    public SuggestedRequestListDto getItemSuggestions(Long userId, Long itemId) {
+        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "Вещь " + itemId + " не найдена"));
+        if (!item.getOwner().getId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "У пользователя " + userId + " не найдена вещь " + itemId);
         }
-        for (ItemRequest itemRequest : itemRequests) {
-            List<Item> requestItems = items.stream()
-                    .filter(item -> itemRequest.getId().equals(item.getRequest().getId()))
-                    .collect(Collectors.toList());
-            itemRequest.setItems(new HashSet<>(requestItems));
+        return SuggestedRequestListDto.builder()
+                .requests(requestSuggestionRepository.findAllDtoByItemId(itemId))
+                .build();
+    }
+
+    /**
+     * Подбирает новой вещи открытые запросы по индексу и сохраняет подсказки в транзакции создания вещи.
+     * Запрос, на который вещь отвечает явно, закрывается и в подсказки не попадает.
+     */
+    @Override
+    public void suggestRequests(Item item) {
+        if (item.getRequest() != null) {
+            requestMatchIndex.closeAfterCommit(item.getRequest().getId());
         }
+        saveSuggestions(item);
+    }
+
+    /**
+     * После изменения названия или описания прежние подсказки вещи удаляются и запросы подбираются заново
+     * в транзакции обновления вещи.
+     */
+    @Override
+    public void rematchRequests(Item item) {
+        requestSuggestionRepository.deleteAllByItemId(item.getId());
+        saveSuggestions(item);
+    }
+
+    private void saveSuggestions(Item item) {
+        Long answeredId = item.getRequest() == null ? null : item.getRequest().getId();
+        LocalDateTime now = LocalDateTime.now();
+        List<RequestSuggestion> suggestions = new ArrayList<>();
+        requestMatchIndex.match(item.getOwner().getId(), item.getName(), item.getDescription())
+                .forEach((requestId, score) -> {
+                    if (!requestId.equals(answeredId)) {
+                        suggestions.add(RequestSuggestion.builder()
+                                .requestId(requestId)
+                                .itemId(item.getId())
+                                .score(score)
+                                .created(now)
+                                .build());
+                    }
+                });
+        requestSuggestionRepository.saveAll(suggestions);
     }
-}
 
+    /**
+     * Ответы на запросы страницы читаются одним запросом сразу в DTO и раскладываются по запросам за один проход.
+     * Отзывы к вещам в ответе не передаются и не загружаются.
+     */
+    private void setItems(List<RequestDtoResponse> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        Map<Long, List<ItemForRequestDto>> items = itemRepository.findAllForRequestByRequestIdIn(requests.stream()
+                        .map(RequestDtoResponse::getId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(ItemForRequestDto::getRequestId));
+        for (RequestDtoResponse request : requests) {
+            request.setItems(items.getOrDefault(request.getId(), new ArrayList<>()));
+        }
+    }
+}
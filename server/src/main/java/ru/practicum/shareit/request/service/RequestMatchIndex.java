@@ -0,0 +1,146 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.request.dto.OpenRequestView;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс слов описаний открытых запросов, то есть запросов без ответа вещью.
+ * По словам названия и описания новой вещи находит запросы с наибольшим числом общих слов.
+ * Изменения применяются после фиксации транзакции.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestMatchIndex {
+    public static final int MAX_MATCHES = 10;
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of("the", "and", "for", "with", "need", "looking",
+            "для", "или", "нужна", "нужен", "нужно", "нужны", "ищу");
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, OpenRequest> requests = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<OpenRequestView> open = itemRequestRepository.findAllOpen();
+        lock.writeLock().lock();
+        try {
+            for (OpenRequestView request : open) {
+                add(request.getId(), request.getRequesterId(), request.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс открытых запросов построен: {} запросов, {} слов", requests.size(), postings.size());
+    }
+
+    public void openAfterCommit(Long requestId, Long requesterId, String description) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                add(requestId, requesterId, description);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void closeAfterCommit(Long requestId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                OpenRequest request = requests.remove(requestId);
+                if (request == null) {
+                    return;
+                }
+                for (String token : request.tokens) {
+                    Set<Long> ids = postings.get(token);
+                    ids.remove(requestId);
+                    if (ids.isEmpty()) {
+                        postings.remove(token);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * До MAX_MATCHES открытых запросов других пользователей, подходящих к вещи, с числом общих слов:
+     * больше совпадений, затем более новый запрос.
+     */
+    public Map<Long, Integer> match(Long ownerId, String name, String description) {
+        Map<Long, Integer> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String token : tokens(name + " " + description)) {
+                for (Long requestId : postings.getOrDefault(token, Collections.emptySet())) {
+                    if (!requests.get(requestId).requesterId.equals(ownerId)) {
+                        scores.merge(requestId, 1, Integer::sum);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed()))
+                .limit(MAX_MATCHES)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private void add(Long requestId, Long requesterId, String description) {
+        OpenRequest request = new OpenRequest(requesterId, tokens(description));
+        requests.put(requestId, request);
+        for (String token : request.tokens) {
+            postings.computeIfAbsent(token, key -> new HashSet<>()).add(requestId);
+        }
+    }
+
+    private static Set<String> tokens(String text) {
+        return SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(token -> token.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(token))
+                .collect(Collectors.toSet());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class OpenRequest {
+        private final Long requesterId;
+        private final Set<String> tokens;
+
+        OpenRequest(Long requesterId, Set<String> tokens) {
+            this.requesterId = requesterId;
+            this.tokens = tokens;
+        }
+    }
+}
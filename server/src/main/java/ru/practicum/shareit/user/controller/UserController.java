@@ -12,10 +12,12 @@ import ru.practicum.shareit.user.dto.UserDtoResponse;
 import ru.practicum.shareit.user.dto.UserDtoUpdate;
 import ru.practicum.shareit.user.dto.UserListDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utilits.PageResponse;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 
+import static ru.practicum.shareit.utilits.Constants.DEFAULT_SIZE_VALUE;
 
 @Controller
 @Slf4j
@@ -55,10 +57,15 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<UserListDto> getUsers() {
+    public ResponseEntity<UserListDto> getUsers(@RequestParam(required = false) @Positive Integer size,
+                                                @RequestParam(required = false) String cursor) {
         log.info("Запрос на получение списка пользователей");
-        return ResponseEntity.ok()
-                .body(userService.getAllUsers());
+        if (size == null && cursor == null) {
+            return ResponseEntity.ok()
+                    .body(userService.getAllUsers());
+        }
+        UserListDto users = userService.getAllUsers(size == null ? Integer.parseInt(DEFAULT_SIZE_VALUE) : size, cursor);
+        return PageResponse.ok(users, users.getNext());
     }
 
 }
\ No newline at end of file
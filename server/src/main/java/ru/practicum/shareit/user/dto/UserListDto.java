@@ -11,4 +11,5 @@ import java.util.List;
 public class UserListDto {
     @JsonValue //представить объект как одно простое значение
     private List<UserDtoResponse> users;
+    private String next;
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package ru.practicum.shareit.user.mapper;
 
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -14,8 +15,10 @@ public interface UserMapper {
 
     UserDtoResponse toUserResponseDtoFromUser(User user);
 
+    @Mapping(target = "version", ignore = true)
     User toUserFromUserDto(UserDto userDto);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
     User toUserFromUserUpdateDto(UserDtoUpdate userDtoUpdate, @MappingTarget User user);
 }
\ No newline at end of file
@@ -22,4 +22,6 @@ public class User {
     private String name;
     @Column(name = "email", nullable = false, unique = true)
     private String email;
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -14,6 +14,8 @@ public interface UserService {
 
     UserListDto getAllUsers();
 
+    UserListDto getAllUsers(int size, String cursor);
+
     void deleteUser(Long userId);
 
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -13,7 +14,10 @@ import ru.practicum.shareit.user.dto.UserListDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilits.Cursor;
+import ru.practicum.shareit.utilits.OptimisticRetry;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +26,7 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     private final UserMapper userMapper;
     private final UserRepository userRepository;
+    private final OptimisticRetry optimisticRetry;
 
     @Override
     public UserDtoResponse createUser(UserDto user) {
@@ -29,8 +34,12 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional(propagation = Propagation.SUPPORTS)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDtoResponse updateUser(UserDtoUpdate user, Long userId) {
+        return optimisticRetry.execute(() -> doUpdateUser(user, userId));
+    }
+
+    private UserDtoResponse doUpdateUser(UserDtoUpdate user, Long userId) {
         User userUp = userRepository.findById(userId).orElseThrow(() ->
                 new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь с id: " + userId + " отсутствует"));
         if (user.getName() != null) {
@@ -39,7 +48,7 @@ public class UserServiceImpl implements UserService {
         if (user.getEmail() != null) {
             userUp.setEmail(user.getEmail());
         }
-        return userMapper.toUserResponseDtoFromUser(userRepository.save(userMapper.toUserFromUserUpdateDto(user, userUp)));
+        return userMapper.toUserResponseDtoFromUser(userRepository.saveAndFlush(userMapper.toUserFromUserUpdateDto(user, userUp)));
     }
 
     @Override
@@ -58,6 +67,19 @@ public class UserServiceImpl implements UserService {
                 .build();
     }
 
+    @Override
+    public UserListDto getAllUsers(int size, String cursor) {
+        Long afterId = cursor == null ? 0L : Cursor.decode(cursor).getId();
+        List<UserDtoResponse> users = userRepository.findAllByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size))
+                .stream()
+                .map(userMapper::toUserResponseDtoFromUser)
+                .collect(Collectors.toList());
+        return UserListDto.builder()
+                .users(users)
+                .next(Cursor.next(users, size, user -> Cursor.of(user.getId())))
+                .build();
+    }
+
     @Override
     public void deleteUser(Long userId) {
         if (!userRepository.existsById(userId)) {
@@ -8,4 +8,6 @@ public class Constants {
     public static final String DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSSSSS";
     public static final String DEFAULT_FROM_VALUE = "0";
     public static final String DEFAULT_SIZE_VALUE = "20";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 }
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.utilits;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Непрозрачный курсор для постраничной выдачи по ключу (seek pagination):
+ * позиция последней записи страницы и её id для однозначного порядка.
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class Cursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime position;
+    private final Long id;
+
+    public static Cursor of(Long id) {
+        return new Cursor(null, id);
+    }
+
+    public static Cursor of(LocalDateTime position, Long id) {
+        return new Cursor(position, id);
+    }
+
+    public String encode() {
+        String raw = (position == null ? "" : position.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            String position = raw.substring(0, separator);
+            return new Cursor(position.isEmpty() ? null : LocalDateTime.parse(position),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный курсор: " + value);
+        }
+    }
+
+    public static Cursor decodePositioned(String value) {
+        Cursor cursor = decode(value);
+        if (cursor.getPosition() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный курсор: " + value);
+        }
+        return cursor;
+    }
+
+    public static <T> String next(List<T> page, int size, Function<T, Cursor> toCursor) {
+        if (page.isEmpty() || page.size() < size) {
+            return null;
+        }
+        return toCursor.apply(page.get(page.size() - 1)).encode();
+    }
+}
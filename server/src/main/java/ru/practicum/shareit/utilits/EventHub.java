@@ -0,0 +1,263 @@
+package ru.practicum.shareit.utilits;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Рассылка событий подписчикам SSE по ключу канала, например по id пользователя.
+ * Каждый канал хранит последние historySize событий, чтобы переподключившийся клиент получил пропущенное
+ * по заголовку Last-Event-ID. Id события начинается с метки запуска процесса: если пропущено больше, чем хранится,
+ * id выдан до перезапуска или канал уже удалён, клиенту уходит событие resync.
+ * Канал без подписчиков удаляется, когда в нём ничего не происходило дольше retentionMillis.
+ * У подписчика ограниченная очередь: отправка идёт на общем пуле потоков, а подписчик,
+ * не успевающий её разбирать, отключается и переподключается с Last-Event-ID.
+ */
+@Slf4j
+public class EventHub<K, E> {
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final long NONE = -1;
+    private static final long UNKNOWN = -2;
+
+    private final String eventName;
+    private final int historySize;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long retentionMillis;
+    private final Executor executor;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<K, Channel> channels = new ConcurrentHashMap<>();
+
+    public EventHub(String eventName, int historySize, int bufferSize, long timeoutMillis, long retentionMillis,
+                    Executor executor) {
+        this.eventName = eventName;
+        this.historySize = historySize;
+        this.bufferSize = Math.max(bufferSize, historySize + 1);
+        this.timeoutMillis = timeoutMillis;
+        this.retentionMillis = retentionMillis;
+        this.executor = executor;
+    }
+
+    public SseEmitter subscribe(K key, @Nullable String lastEventId, Predicate<E> filter) {
+        long lastSeen = parseEventId(lastEventId);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        channels.compute(key, (k, channel) -> {
+            Channel target = channel != null ? channel : new Channel();
+            Subscriber subscriber = new Subscriber(emitter, filter, target);
+            emitter.onCompletion(subscriber::remove);
+            emitter.onTimeout(subscriber::remove);
+            emitter.onError(error -> subscriber.remove());
+            target.subscribe(subscriber, lastSeen);
+            return target;
+        });
+        return emitter;
+    }
+
+    /**
+     * Публикует событие после фиксации текущей транзакции, при откате событие не отправляется.
+     */
+    public void publishAfterCommit(K key, E event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(key, event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(key, event);
+            }
+        });
+    }
+
+    public void publish(K key, E event) {
+        channels.compute(key, (k, channel) -> {
+            Channel target = channel != null ? channel : new Channel();
+            target.publish(new Envelope<>(sequence.incrementAndGet(), event));
+            return target;
+        });
+    }
+
+    /**
+     * Пул из threads потоков-демонов для отправки событий. Задача отправки одна на подписчика,
+     * поэтому очередь пула не длиннее числа подписчиков.
+     */
+    public static Executor daemonExecutor(String name, int threads) {
+        AtomicLong counter = new AtomicLong();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Комментарий-пинг всем подписчикам: держит соединение открытым и выявляет отключившихся клиентов.
+     * Заодно удаляет каналы, которые давно остались без подписчиков.
+     */
+    public void heartbeat() {
+        long idleSince = System.currentTimeMillis() - retentionMillis;
+        for (K key : channels.keySet()) {
+            channels.computeIfPresent(key, (k, channel) -> channel.isIdle(idleSince) ? null : channel);
+        }
+        channels.values().forEach(Channel::heartbeat);
+    }
+
+    private String eventId(long id) {
+        return epoch + "-" + id;
+    }
+
+    private long parseEventId(@Nullable String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return NONE;
+        }
+        String value = lastEventId.strip();
+        int separator = value.lastIndexOf('-');
+        if (separator < 0 || !value.substring(0, separator).equals(epoch)) {
+            return UNKNOWN;
+        }
+        try {
+            return Long.parseLong(value.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+    private static class Envelope<E> {
+        private final long id;
+        private final E event;
+
+        Envelope(long id, E event) {
+            this.id = id;
+            this.event = event;
+        }
+    }
+
+    private class Channel {
+        private final Deque<Envelope<E>> history = new ArrayDeque<>();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        /**
+         * События с id не больше этого канал не хранит: вытеснены из истории или опубликованы до создания канала.
+         */
+        private long evicted = sequence.get();
+        private volatile long lastActive = System.currentTimeMillis();
+
+        synchronized void subscribe(Subscriber subscriber, long lastSeen) {
+            lastActive = System.currentTimeMillis();
+            if (lastSeen == UNKNOWN || lastSeen >= 0 && lastSeen < evicted) {
+                subscriber.offer(SseEmitter.event().name(RESYNC_EVENT).data(RESYNC_EVENT));
+            }
+            if (lastSeen >= 0) {
+                for (Envelope<E> envelope : history) {
+                    if (envelope.id > lastSeen) {
+                        subscriber.offer(envelope);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+
+        synchronized void publish(Envelope<E> envelope) {
+            lastActive = System.currentTimeMillis();
+            history.addLast(envelope);
+            if (history.size() > historySize) {
+                evicted = history.removeFirst().id;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(envelope);
+            }
+        }
+
+        boolean isIdle(long idleSince) {
+            return subscribers.isEmpty() && lastActive < idleSince;
+        }
+
+        void heartbeat() {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Predicate<E> filter;
+        private final Channel channel;
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Predicate<E> filter, Channel channel) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.channel = channel;
+        }
+
+        void offer(Envelope<E> envelope) {
+            if (filter.test(envelope.event)) {
+                offer(SseEmitter.event()
+                        .id(eventId(envelope.id))
+                        .name(eventName)
+                        .data(envelope.event));
+            }
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                log.info("Подписчик не успевает получать события {}, соединение закрыто", eventName);
+                remove();
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        void remove() {
+            closed = true;
+            queue.clear();
+            if (channel.subscribers.remove(this)) {
+                channel.lastActive = System.currentTimeMillis();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.utilits;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Потоки событий пишут в ответ из пула EventHub, и запись может совпасть с закрытием соединения клиентом.
+ * Без сброса фасадов Tomcat отдаёт объект ответа следующему запросу, и опоздавшее событие попадает в чужой ответ;
+ * со сбросом такая запись завершается IllegalStateException, и подписчик отключается.
+ */
+@Configuration
+public class EventStreamConfig {
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> discardResponseFacades() {
+        return factory -> factory.addConnectorCustomizers(connector -> connector.setDiscardFacades(true));
+    }
+}
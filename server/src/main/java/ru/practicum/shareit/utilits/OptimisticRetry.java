@@ -0,0 +1,49 @@
+package ru.practicum.shareit.utilits;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Повтор идемпотентных изменений при конфликте версий.
+ * Каждая попытка выполняется в отдельной транзакции и заново читает сущность,
+ * между попытками выдерживается случайная пауза, чтобы конкурирующие запросы не повторялись одновременно.
+ * Вызывающий метод не должен открывать свою транзакцию.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OptimisticRetry {
+    public static final int MAX_ATTEMPTS = 5;
+    public static final long BACKOFF_MILLIS = 20;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public <T> T execute(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Конфликт версий, попытка {} из {}", attempt, MAX_ATTEMPTS);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, BACKOFF_MILLIS * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Повтор операции прерван", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.utilits;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.ResponseEntity;
+
+import static ru.practicum.shareit.utilits.Constants.NEXT_CURSOR_HEADER;
+
+@UtilityClass
+public class PageResponse {
+    public static <T> ResponseEntity<T> ok(T body, String next) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (next != null) {
+            builder.header(NEXT_CURSOR_HEADER, next);
+        }
+        return builder.body(body);
+    }
+}
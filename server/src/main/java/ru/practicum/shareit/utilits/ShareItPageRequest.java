@@ -1,9 +1,12 @@
 package ru.practicum.shareit.utilits;
 
+import lombok.EqualsAndHashCode;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
+@EqualsAndHashCode(callSuper = true)
 public class ShareItPageRequest extends PageRequest {
+    private final int from;
 
     public ShareItPageRequest() {
         this(Sort.unsorted());
@@ -19,6 +22,11 @@ public class ShareItPageRequest extends PageRequest {
 
     public ShareItPageRequest(int from, int size, Sort sort) {
         super(from / size, size, sort);
+        this.from = from;
     }
-}
 
+    @Override
+    public long getOffset() {
+        return from;
+    }
+}
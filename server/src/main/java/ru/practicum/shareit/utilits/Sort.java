@@ -4,6 +4,6 @@ import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class Sort {
-    public static final org.springframework.data.domain.Sort SORT_BY_START_DESC = org.springframework.data.domain.Sort.by("start").descending();
-    public static final org.springframework.data.domain.Sort SORT_BY_CREATED_DESC = org.springframework.data.domain.Sort.by("created").descending();
+    public static final org.springframework.data.domain.Sort SORT_BY_CREATED_DESC = org.springframework.data.domain.Sort.by("created").descending()
+            .and(org.springframework.data.domain.Sort.by("id").descending());
 }
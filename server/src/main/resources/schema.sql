@@ -3,12 +3,16 @@ DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS requests CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
+DROP TABLE IF EXISTS item_booking_pointers CASCADE;
+DROP TABLE IF EXISTS request_suggestions CASCADE;
+DROP SEQUENCE IF EXISTS booking_seq;
 
 CREATE TABLE IF NOT EXISTS users
 (
     user_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
 
@@ -20,6 +24,9 @@ CREATE TABLE IF NOT EXISTS requests
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL
 );
 
+CREATE INDEX IF NOT EXISTS ix_requests_requester_created ON requests (requester_id, created, request_id);
+CREATE INDEX IF NOT EXISTS ix_requests_created ON requests (created, request_id);
+
 CREATE TABLE IF NOT EXISTS items
 (
     item_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -27,19 +34,29 @@ CREATE TABLE IF NOT EXISTS items
     description VARCHAR(1000) NOT NULL,
     is_available boolean default true,
     owner_id BIGINT REFERENCES users (user_id) ON DELETE RESTRICT,
-    request_id BIGINT REFERENCES requests (request_id) ON DELETE RESTRICT
+    request_id BIGINT REFERENCES requests (request_id) ON DELETE RESTRICT,
+    version BIGINT DEFAULT 0 NOT NULL
 );
 
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id, item_id);
+
+CREATE SEQUENCE IF NOT EXISTS booking_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS bookings
 (
-    booking_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booking_id BIGINT PRIMARY KEY,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT REFERENCES items (item_id) ON DELETE RESTRICT,
     booker_id BIGINT REFERENCES users (user_id)ON DELETE RESTRICT,
-    status VARCHAR
+    status VARCHAR,
+    version BIGINT DEFAULT 0 NOT NULL
 );
 
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings (item_id, status, start_date, end_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date, booking_id);
+
 CREATE TABLE IF NOT EXISTS comments
 (
     comment_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -47,4 +64,28 @@ CREATE TABLE IF NOT EXISTS comments
     item_id BIGINT REFERENCES items (item_id) ON DELETE RESTRICT,
     author_id BIGINT REFERENCES users (user_id) ON DELETE RESTRICT,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS item_booking_pointers
+(
+    item_id BIGINT PRIMARY KEY REFERENCES items (item_id) ON DELETE CASCADE,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    next_start TIMESTAMP WITHOUT TIME ZONE
+);
+
+CREATE INDEX IF NOT EXISTS ix_item_booking_pointers_next_start ON item_booking_pointers (next_start);
+
+CREATE TABLE IF NOT EXISTS request_suggestions
+(
+    suggestion_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    request_id BIGINT NOT NULL REFERENCES requests (request_id) ON DELETE CASCADE,
+    item_id BIGINT NOT NULL REFERENCES items (item_id) ON DELETE CASCADE,
+    score INT NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT uq_request_suggestions UNIQUE (request_id, item_id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_request_suggestions_item ON request_suggestions (item_id);
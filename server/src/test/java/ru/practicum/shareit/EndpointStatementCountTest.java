@@ -0,0 +1,172 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Число SQL-запросов на чтение не зависит от объёма данных: одни и те же вызовы над маленьким и большим набором
+ * вещей, бронирований, отзывов и запросов должны выполнять одинаковое количество запросов.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class EndpointStatementCountTest {
+    private static final int SMALL = 2;
+    private static final int LARGE = 25;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void readsAreBoundedAsDataGrows() {
+        Fixture small = fixture("small", SMALL);
+        Fixture large = fixture("large", LARGE);
+
+        assertBounded(small, large, fixture -> itemService.getAllItemsOwner(fixture.ownerId, 0, fixture.size, null));
+        assertBounded(small, large, fixture -> itemService.getItemById(fixture.ownerId, fixture.itemIds.get(0)));
+        assertBounded(small, large, fixture -> itemService.search(ItemSearchFilter.builder()
+                .text(fixture.tag)
+                .from(0)
+                .size(fixture.size)
+                .build()));
+        assertBounded(small, large, fixture -> bookingService.getBookingById(fixture.bookingIds.get(0), fixture.ownerId));
+        assertBounded(small, large, fixture -> bookingService.getAllBookingsOfOwner(fixture.ownerId, BookingFilter.builder()
+                .state("ALL")
+                .from(0)
+                .size(fixture.size)
+                .build()));
+        assertBounded(small, large, fixture -> bookingService.getAllBookings(fixture.bookerId, BookingFilter.builder()
+                .state("ALL")
+                .from(0)
+                .size(fixture.size)
+                .build()));
+        assertBounded(small, large, fixture -> itemRequestService.getOwnerRequests(fixture.requesterId, 0, fixture.size,
+                null));
+        assertBounded(small, large, fixture -> itemRequestService.getItemRequestById(fixture.requesterId,
+                fixture.requestIds.get(0)));
+    }
+
+    private void assertBounded(Fixture small, Fixture large, Call call) {
+        long smallCount = statements(small, call);
+        long largeCount = statements(large, call);
+        assertEquals(smallCount, largeCount, "Число запросов растёт вместе с данными: " + smallCount + " -> "
+                + largeCount);
+    }
+
+    private long statements(Fixture fixture, Call call) {
+        statistics.clear();
+        call.run(fixture);
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Владелец с size вещами, каждая отвечает на свой запрос и имеет будущее бронирование,
+     * у первой вещи size отзывов.
+     */
+    private Fixture fixture(String tag, int size) {
+        Fixture fixture = new Fixture(tag, size);
+        fixture.ownerId = user(tag + "-owner");
+        fixture.bookerId = user(tag + "-booker");
+        fixture.requesterId = user(tag + "-requester");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < size; i++) {
+            Long requestId = itemRequestService.createItemRequest(ItemRequestDto.builder()
+                    .description("Нужна вещь " + tag + " " + i)
+                    .build(), fixture.requesterId).getId();
+            fixture.requestIds.add(requestId);
+            Long itemId = itemService.createItem(ItemDto.builder()
+                    .name("Вещь " + tag + " " + i)
+                    .description("Описание " + tag)
+                    .available(true)
+                    .requestId(requestId)
+                    .build(), fixture.ownerId).getId();
+            fixture.itemIds.add(itemId);
+            fixture.bookingIds.add(bookingService.createBooking(fixture.bookerId, BookingDto.builder()
+                    .itemId(itemId)
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i + 1))
+                    .build()).getId());
+            Comment comment = new Comment();
+            comment.setText("Отзыв " + i);
+            comment.setItem(itemRepository.getReferenceById(fixture.itemIds.get(0)));
+            comment.setAuthor(userRepository.getReferenceById(fixture.bookerId));
+            comment.setCreated(LocalDateTime.now());
+            commentRepository.save(comment);
+        }
+        return fixture;
+    }
+
+    private Long user(String name) {
+        return userService.createUser(UserDto.builder()
+                .name(name)
+                .email(name + "-" + System.nanoTime() + "@count.ru")
+                .build()).getId();
+    }
+
+    private interface Call {
+        void run(Fixture fixture);
+    }
+
+    private static class Fixture {
+        private final String tag;
+        private final int size;
+        private final List<Long> itemIds = new ArrayList<>();
+        private final List<Long> bookingIds = new ArrayList<>();
+        private final List<Long> requestIds = new ArrayList<>();
+        private Long ownerId;
+        private Long bookerId;
+        private Long requesterId;
+
+        Fixture(String tag, int size) {
+            this.tag = tag;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Много потоков бронируют одну популярную вещь на пересекающиеся периоды, владелец параллельно отклоняет часть заявок.
+ * Проверяется, что занятые периоды не пересекаются, и в журнал выводится пропускная способность.
+ * Размер нагрузки задаётся свойствами bench.threads и bench.attempts.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BookingContentionBenchmarkTest {
+    private static final int THREADS = Integer.getInteger("bench.threads", 16);
+    private static final int ATTEMPTS = Integer.getInteger("bench.attempts", 100);
+    private static final int SLOTS = 200;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void hotItemIsNeverDoubleBooked() throws InterruptedException {
+        Long ownerId = userService.createUser(user("owner")).getId();
+        Long itemId = itemService.createItem(ItemDto.builder()
+                .name("Перфоратор")
+                .description("Популярная вещь")
+                .available(true)
+                .build(), ownerId).getId();
+        List<Long> bookerIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookerIds.add(userService.createUser(user("booker" + i)).getId());
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (Long bookerId : bookerIds) {
+            workers.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                await(start);
+                for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+                    LocalDateTime from = base.plusHours(random.nextInt(SLOTS));
+                    BookingDto bookingDto = BookingDto.builder()
+                            .itemId(itemId)
+                            .start(from)
+                            .end(from.plusHours(1 + random.nextInt(3)))
+                            .build();
+                    try {
+                        BookingDtoResponse booking = bookingService.createBooking(bookerId, bookingDto);
+                        created.incrementAndGet();
+                        if (random.nextInt(4) == 0) {
+                            bookingService.approveBooking(ownerId, booking.getId(), false);
+                            rejected.incrementAndGet();
+                        }
+                    } catch (ResponseStatusException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        int total = THREADS * ATTEMPTS;
+        log.info("Потоков {}, попыток {}: создано {}, отклонено владельцем {}, отказов {}, {} мс, {} попыток/с",
+                THREADS, total, created.get(), rejected.get(), conflicts.get(), elapsedMillis,
+                total * 1000L / elapsedMillis);
+
+        assertEquals(total, created.get() + conflicts.get());
+        List<Booking> occupying = bookingRepository.findAllByItemIdAndStatusInAndEndAfter(itemId,
+                        BookingIntervalIndex.OCCUPYING_STATUSES, base.minusHours(1)).stream()
+                .sorted(Comparator.comparing(Booking::getStart))
+                .collect(Collectors.toList());
+        assertEquals(created.get() - rejected.get(), occupying.size());
+        for (int i = 1; i < occupying.size(); i++) {
+            Booking previous = occupying.get(i - 1);
+            Booking next = occupying.get(i);
+            assertTrue(!previous.getEnd().isAfter(next.getStart()),
+                    "Бронирования " + previous.getId() + " и " + next.getId() + " пересекаются");
+        }
+    }
+
+    private static UserDto user(String name) {
+        return UserDto.builder()
+                .name(name)
+                .email(name + "-" + System.nanoTime() + "@bench.ru")
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
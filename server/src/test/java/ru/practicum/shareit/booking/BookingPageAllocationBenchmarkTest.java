@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.enam.State;
+import ru.practicum.shareit.booking.enam.Status;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение памяти, выделяемой на страницу бронирований владельца: прежний путь через управляемые сущности
+ * и MapStruct против проекции сразу в BookingDtoResponse. Выделение считается по текущему потоку,
+ * в журнал выводятся байты на страницу для обоих путей.
+ * Размер страницы и число повторов задаются свойствами bench.page и bench.rounds.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BookingPageAllocationBenchmarkTest {
+    private static final int PAGE = Integer.getInteger("bench.page", 500);
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 20);
+    private static final int ITEMS = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingMapper bookingMapper;
+
+    @Test
+    void projectionAllocatesLessThanEntities() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner-" + System.nanoTime() + "@alloc.ru")
+                .build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker-" + System.nanoTime() + "@alloc.ru")
+                .build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(Item.builder().name("Вещь " + i).description("Описание").available(true).owner(owner).build());
+        }
+        items = itemRepository.saveAll(items);
+        List<Booking> bookings = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < PAGE; i++) {
+            bookings.add(new Booking(null, items.get(i % ITEMS), booker, Status.WAITING,
+                    start.plusHours(i), start.plusHours(i + 1), null));
+        }
+        bookingRepository.saveAll(bookings);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Supplier<List<BookingDtoResponse>> entities = () -> readOnly.execute(status -> entityManager.createQuery(
+                        "SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH b.booker " +
+                                "WHERE i.owner.id = :ownerId ORDER BY b.start DESC, b.id DESC", Booking.class)
+                .setParameter("ownerId", owner.getId())
+                .setMaxResults(PAGE)
+                .getResultList()
+                .stream()
+                .map(bookingMapper::toBookingDtoResponseFromBooking)
+                .collect(Collectors.toList()));
+        BookingFilter filter = BookingFilter.builder().state("ALL").from(0).size(PAGE).build();
+        Supplier<List<BookingDtoResponse>> projection = () -> readOnly.execute(status ->
+                bookingRepository.findPage(owner.getId(), true, State.ALL, filter, null));
+
+        assertEquals(entities.get(), projection.get());
+        long entityBytes = allocatedPerPage(entities);
+        long projectionBytes = allocatedPerPage(projection);
+        log.info("Страница из {} бронирований: сущности {} КБ, проекция {} КБ ({}%)", PAGE, entityBytes / 1024,
+                projectionBytes / 1024, projectionBytes * 100 / entityBytes);
+
+        assertTrue(projectionBytes < entityBytes);
+    }
+
+    private static long allocatedPerPage(Supplier<List<BookingDtoResponse>> page) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < ROUNDS; i++) {
+            page.get();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            page.get();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / ROUNDS;
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.enam.State;
+import ru.practicum.shareit.booking.enam.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utilits.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Страница бронирований читается одним SQL-запросом независимо от числа вещей владельца, состояния и фильтров.
+ */
+@DataJpaTest
+class BookingRepositoryCustomImplTest {
+    private static final int ITEMS = 300;
+    private static final int PAGE = 20;
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private Item firstItem;
+
+    @BeforeEach
+    void setUp() {
+        owner = em.persist(User.builder().name("owner").email("owner@test.ru").build());
+        booker = em.persist(User.builder().name("booker").email("booker@test.ru").build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = em.persist(Item.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            if (firstItem == null) {
+                firstItem = item;
+            }
+            Status status = Status.values()[i % Status.values().length];
+            em.persist(new Booking(null, item, booker, status, now.minusDays(i % 7 - 3), now.minusDays(i % 7 - 4), null));
+        }
+        em.flush();
+        em.clear();
+
+        statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = State.class, names = "UNSUPPORTED_STATUS", mode = EnumSource.Mode.EXCLUDE)
+    void ownerPageIsOneStatement(State state) {
+        List<BookingDtoResponse> page = bookingRepository.findPage(owner.getId(), true, state, filter().build(), null);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(page.size() <= PAGE);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = State.class, names = "UNSUPPORTED_STATUS", mode = EnumSource.Mode.EXCLUDE)
+    void bookerPageIsOneStatement(State state) {
+        bookingRepository.findPage(booker.getId(), false, state, filter().build(), null);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void filteredCursorPageIsOneStatement() {
+        List<BookingDtoResponse> first = bookingRepository.findPage(owner.getId(), true, State.ALL,
+                filter().build(), null);
+        assertEquals(PAGE, first.size());
+        BookingDtoResponse last = first.get(first.size() - 1);
+        statistics.clear();
+
+        bookingRepository.findPage(owner.getId(), true, State.ALL, filter()
+                .itemId(firstItem.getId())
+                .status(Status.WAITING)
+                .rangeStart(LocalDateTime.now().minusDays(10))
+                .rangeEnd(LocalDateTime.now().plusDays(10))
+                .build(), Cursor.of(last.getStart(), last.getId()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private static BookingFilter.BookingFilterBuilder filter() {
+        return BookingFilter.builder().state("ALL").from(0).size(PAGE);
+    }
+}
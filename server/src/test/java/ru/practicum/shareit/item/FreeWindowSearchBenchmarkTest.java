@@ -0,0 +1,159 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.enam.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Поиск вещей, свободных в период: один запрос с NOT EXISTS против прежнего способа —
+ * текстовый поиск страницами и отдельная проверка бронирований каждой найденной вещи.
+ * Большая часть каталога занята в искомый период, поэтому свободные вещи находятся только в конце.
+ * В журнал выводятся время и число SQL-запросов на страницу.
+ * Размер каталога и число повторов задаются свойствами bench.items и bench.rounds.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class FreeWindowSearchBenchmarkTest {
+    private static final int ITEMS = Integer.getInteger("bench.items", 5000);
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 3);
+    private static final int PAGE = 20;
+    private static final int CANDIDATES = 100;
+    private static final double BUSY_SHARE = 0.9;
+    private static final String TEXT = "бенчдрель";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void antiJoinAnswersPageInOneStatement() {
+        LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = start.plusDays(2);
+        catalog(start);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Supplier<List<Long>> antiJoin = () -> readOnly.execute(status ->
+                ids(itemRepository.searchAvailableBetween(TEXT, start, end, 0L, PageRequest.of(0, PAGE))));
+        Supplier<List<Long>> perItem = () -> readOnly.execute(status -> {
+            List<Long> free = new ArrayList<>();
+            Long afterId = 0L;
+            while (free.size() < PAGE) {
+                List<ItemDtoResponse> candidates = itemRepository.searchAvailable(TEXT, afterId,
+                        PageRequest.of(0, CANDIDATES));
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                for (ItemDtoResponse item : candidates) {
+                    if (free.size() < PAGE && !bookingRepository.existsOverlap(item.getId(),
+                            EnumSet.of(Status.APPROVED), start, end, null)) {
+                        free.add(item.getId());
+                    }
+                }
+                afterId = candidates.get(candidates.size() - 1).getId();
+            }
+            return free;
+        });
+
+        assertEquals(perItem.get(), antiJoin.get());
+        Measure antiJoinMeasure = measure(antiJoin);
+        Measure perItemMeasure = measure(perItem);
+        log.info("Каталог {} вещей, занято {}%: NOT EXISTS {} мкс и {} запрос на страницу, "
+                        + "проверка по вещам {} мкс и {} запросов на страницу",
+                ITEMS, (int) (BUSY_SHARE * 100), antiJoinMeasure.micros, antiJoinMeasure.statements,
+                perItemMeasure.micros, perItemMeasure.statements);
+
+        assertEquals(1, antiJoinMeasure.statements);
+    }
+
+    /**
+     * Вещи добавляются пакетом, у каждой одно подтверждённое бронирование:
+     * у первых BUSY_SHARE вещей оно пересекается с периодом, у остальных закончилось до его начала.
+     */
+    private void catalog(LocalDateTime start) {
+        User owner = userRepository.save(User.builder().name("owner")
+                .email("owner-" + System.nanoTime() + "@search.ru").build());
+        User booker = userRepository.save(User.builder().name("booker")
+                .email("booker-" + System.nanoTime() + "@search.ru").build());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            rows.add(new Object[]{TEXT + " " + i, "Описание", owner.getId()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, is_available, owner_id) VALUES (?, ?, TRUE, ?)",
+                rows);
+        List<Long> itemIds = jdbcTemplate.queryForList("SELECT item_id FROM items WHERE owner_id = ? ORDER BY item_id",
+                Long.class, owner.getId());
+        int busy = (int) (itemIds.size() * BUSY_SHARE);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Booking> bookings = new ArrayList<>();
+            for (int i = 0; i < itemIds.size(); i++) {
+                LocalDateTime from = i < busy ? start.plusHours(i % 24) : start.minusDays(3);
+                bookings.add(new Booking(null, itemRepository.getReferenceById(itemIds.get(i)), booker,
+                        Status.APPROVED, from, from.plusDays(1), null));
+            }
+            bookingRepository.saveAll(bookings);
+        });
+    }
+
+    private Measure measure(Supplier<List<Long>> page) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        page.get();
+        statistics.clear();
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            page.get();
+        }
+        return new Measure((System.nanoTime() - started) / 1000 / ROUNDS, statistics.getPrepareStatementCount() / ROUNDS);
+    }
+
+    private static List<Long> ids(List<ItemDtoResponse> items) {
+        return items.stream().map(ItemDtoResponse::getId).collect(Collectors.toList());
+    }
+
+    private static class Measure {
+        private final long micros;
+        private final long statements;
+
+        Measure(long micros, long statements) {
+            this.micros = micros;
+            this.statements = statements;
+        }
+    }
+}
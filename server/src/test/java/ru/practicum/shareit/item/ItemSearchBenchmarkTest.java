@@ -0,0 +1,118 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDtoResponse;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Поиск подстроки: триграммный индекс в памяти против LIKE '%text%' в базе.
+ * Редкое слово встречается в описаниях RARE вещей по всему каталогу, частое — во всех;
+ * каждая UNAVAILABLE-я вещь недоступна. Редких вещей меньше страницы, поэтому LIKE просматривает весь каталог,
+ * а индекс — только списки триграмм этого слова.
+ * В журнал выводится время страницы для обоих способов.
+ * Размер каталога и число повторов задаются свойствами bench.items и bench.rounds, например -Dbench.items=1000000.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ItemSearchBenchmarkTest {
+    private static final int ITEMS = Integer.getInteger("bench.items", 20000);
+    private static final int ROUNDS = Integer.getInteger("bench.rounds", 5);
+    private static final int PAGE = 20;
+    private static final int BATCH = 10000;
+    private static final int RARE = 10;
+    private static final int UNAVAILABLE = 7;
+    private static final String RARE_TEXT = "бенчпоиск";
+    private static final String COMMON_TEXT = "перфоратор";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Test
+    void indexAnswersPageWithoutScanningCatalog() {
+        catalog();
+        itemSearchIndex.load();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        for (String text : List.of(RARE_TEXT, COMMON_TEXT)) {
+            Supplier<List<Long>> index = () -> readOnly.execute(status -> {
+                List<Long> found = itemSearchIndex.search(text, 0L, 0, PAGE);
+                return found.isEmpty() ? found : ids(itemRepository.findAllDtoByIdIn(found));
+            });
+            Supplier<List<Long>> like = () -> readOnly.execute(status ->
+                    ids(itemRepository.searchAvailable(text, 0L, PageRequest.of(0, PAGE))));
+
+            List<Long> expected = like.get();
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, index.get());
+            long indexMicros = measure(index);
+            long likeMicros = measure(like);
+            log.info("Каталог {} вещей, запрос \"{}\": индекс {} мкс, LIKE {} мкс на страницу",
+                    ITEMS, text, indexMicros, likeMicros);
+            if (text.equals(RARE_TEXT)) {
+                assertTrue(indexMicros < likeMicros);
+            }
+        }
+    }
+
+    /**
+     * Вещи добавляются пакетами по BATCH строк, чтобы каталог в миллион вещей не собирался в памяти целиком.
+     */
+    private void catalog() {
+        User owner = userRepository.save(User.builder().name("owner")
+                .email("owner-" + System.nanoTime() + "@index.ru").build());
+        int rareStep = ITEMS / RARE;
+        for (int from = 0; from < ITEMS; from += BATCH) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = from; i < Math.min(from + BATCH, ITEMS); i++) {
+                String description = "Ударный " + COMMON_TEXT + " " + i
+                        + (i % rareStep == rareStep - 1 ? ", " + RARE_TEXT.toUpperCase() : "");
+                rows.add(new Object[]{"Вещь " + i, description, i % UNAVAILABLE != 0, owner.getId()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO items (name, description, is_available, owner_id) VALUES (?, ?, ?, ?)",
+                    rows);
+        }
+    }
+
+    private long measure(Supplier<List<Long>> page) {
+        page.get();
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            page.get();
+        }
+        return (System.nanoTime() - started) / 1000 / ROUNDS;
+    }
+
+    private static List<Long> ids(List<ItemDtoResponse> items) {
+        return items.stream().map(ItemDtoResponse::getId).collect(Collectors.toList());
+    }
+}